@@ -0,0 +1,37 @@
+package io.semla.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar, it accepts the regular JMH command line options but defaults to writing
+ * machine-readable JSON results in jmh-result.json so that they can be diffed between commits.
+ */
+public final class Benchmarks {
+
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private Benchmarks() {}
+
+    public static void main(String... args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+        Options options = new OptionsBuilder()
+            .parent(commandLineOptions)
+            .resultFormat(commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON))
+            .result(commandLineOptions.getResult().orElse(DEFAULT_RESULT_FILE))
+            .build();
+        Runner runner = new Runner(options);
+        if (commandLineOptions.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
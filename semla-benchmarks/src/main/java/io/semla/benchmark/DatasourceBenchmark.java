@@ -0,0 +1,82 @@
+package io.semla.benchmark;
+
+import io.semla.Semla;
+import io.semla.benchmark.model.Account;
+import io.semla.datasource.Datasource;
+import io.semla.datasource.HsqlDatasource;
+import io.semla.datasource.InMemoryDatasource;
+import io.semla.persistence.EntityManager;
+import io.semla.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatasourceBenchmark {
+
+    @Param({"in-memory", "hsql"})
+    public String datasource;
+
+    @Param({"1000"})
+    public int size;
+
+    private Datasource.Configuration configuration;
+    private EntityManager<Integer, Account> accounts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        configuration = switch (datasource) {
+            case "in-memory" -> InMemoryDatasource.configure();
+            case "hsql" -> HsqlDatasource.configure()
+                .withJdbcUrl("jdbc:hsqldb:mem:benchmark" + System.nanoTime())
+                .withAutoCreateTable(true);
+            default -> throw new IllegalArgumentException("unknown datasource: " + datasource);
+        };
+        accounts = Semla.configure()
+            .withDefaultDatasource(configuration)
+            .create()
+            .getInstance(EntityManagerFactory.class)
+            .of(Account.class);
+        for (int i = 0; i < size; i++) {
+            accounts.create(Account.with(i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeCreated() {
+        accounts.where("id").greaterThan(size).delete();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        configuration.close();
+    }
+
+    @Benchmark
+    public Optional<Account> get() {
+        return accounts.get(nextKey());
+    }
+
+    @Benchmark
+    public List<Account> list() {
+        return accounts.where("score").greaterOrEquals(nextKey() % 900).limitTo(100).list();
+    }
+
+    @Benchmark
+    public Account create() {
+        return accounts.create(Account.with(size));
+    }
+
+    private int nextKey() {
+        next = next % size + 1;
+        return next;
+    }
+}
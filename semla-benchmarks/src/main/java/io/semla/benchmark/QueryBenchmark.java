@@ -0,0 +1,48 @@
+package io.semla.benchmark;
+
+import io.semla.benchmark.model.Account;
+import io.semla.query.Pagination;
+import io.semla.query.Predicates;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private List<Account> accounts;
+    private Predicates<Account> predicates;
+    private Pagination<Account> pagination;
+
+    @Setup
+    public void setup() {
+        accounts = Account.generate(size);
+        predicates = Predicates.of(Account.class).where("score").greaterThan(500).and("name").contains("7");
+        pagination = Pagination.of(Account.class).orderedBy("score", Pagination.Sort.DESC).startAt(10).limitTo(100);
+    }
+
+    @Benchmark
+    public long predicatesMatches() {
+        long matches = 0;
+        for (Account account : accounts) {
+            if (predicates.matches(account)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<Account> paginationPaginate() {
+        return pagination.paginate(accounts.stream()).toList();
+    }
+}
@@ -0,0 +1,120 @@
+package io.semla.benchmark;
+
+import io.semla.benchmark.model.Account;
+import io.semla.model.EntityModel;
+import io.semla.serialization.io.CharacterReader;
+import io.semla.serialization.io.InputStreamReader;
+import io.semla.serialization.json.Json;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+    @Param({"1", "100"})
+    public int size;
+
+    private Type listType;
+    private String json;
+    private byte[] bytes;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        listType = EntityModel.of(Account.class).getListType();
+        json = Json.write(Account.generate(size));
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+        file = Files.createTempFile("semla-reader-benchmark", ".json");
+        Files.write(file, bytes);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int scanBytes() {
+        return scan(new InputStreamReader(new ByteArrayInputStream(bytes)));
+    }
+
+    @Benchmark
+    public int scanBytesLegacy() {
+        return scan(new LegacyInputStreamReader(new ByteArrayInputStream(bytes)));
+    }
+
+    @Benchmark
+    public int scanFile() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return scan(new InputStreamReader(inputStream));
+        }
+    }
+
+    @Benchmark
+    public int scanFileLegacy() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return scan(new LegacyInputStreamReader(inputStream));
+        }
+    }
+
+    @Benchmark
+    public List<Account> jsonReadFromString() {
+        return Json.read(json, listType);
+    }
+
+    @Benchmark
+    public List<Account> jsonReadFromStream() {
+        return Json.read(new ByteArrayInputStream(bytes), listType);
+    }
+
+    private static int scan(CharacterReader reader) {
+        int hash = 0;
+        for (char c = reader.next(); c != CharacterReader.EOF; c = reader.next()) {
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+
+    /**
+     * The reader as it was before it got buffered, one {@link InputStream#read()} per character.
+     */
+    static class LegacyInputStreamReader extends CharacterReader {
+
+        private final InputStream inputStream;
+
+        LegacyInputStreamReader(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public boolean isNull() {
+            return inputStream == null;
+        }
+
+        @Override
+        public int length() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        protected char read() {
+            try {
+                return (char) inputStream.read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.semla.benchmark;
+
+import io.semla.benchmark.model.Account;
+import io.semla.model.EntityModel;
+import io.semla.reflect.Member;
+import io.semla.reflect.Properties;
+import io.semla.reflect.Setter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectionBenchmark {
+
+    private Account account;
+    private Member<Account> name;
+    private Member<Account> score;
+
+    @Setup
+    public void setup() {
+        account = Account.generate(1).get(0);
+        name = Properties.membersOf(Account.class).get("name");
+        score = Properties.membersOf(Account.class).get("score");
+    }
+
+    @Benchmark
+    public Map<String, Setter<Account>> settersOf() {
+        return Properties.settersOf(Account.class);
+    }
+
+    @Benchmark
+    public String memberGet() {
+        return name.getOn(account);
+    }
+
+    @Benchmark
+    public Integer primitiveMemberGet() {
+        return score.getOn(account);
+    }
+
+    @Benchmark
+    public int primitiveAccessorGet() {
+        return score.accessor().getInt(account);
+    }
+
+    @Benchmark
+    public Account memberSet() {
+        return name.setOn(account, "account-0");
+    }
+
+    @Benchmark
+    public Account primitiveMemberSet() {
+        return score.setOn(account, 42);
+    }
+
+    @Benchmark
+    public Account primitiveAccessorSet() {
+        score.accessor().setInt(account, 42);
+        return account;
+    }
+
+    @Benchmark
+    public Account modelNewInstance() {
+        return EntityModel.of(Account.class).newInstance();
+    }
+
+    @Benchmark
+    public Account entityModelCopy() {
+        return EntityModel.copy(account);
+    }
+}
@@ -0,0 +1,67 @@
+package io.semla.benchmark;
+
+import io.semla.benchmark.model.Account;
+import io.semla.model.EntityModel;
+import io.semla.serialization.json.Json;
+import io.semla.serialization.yaml.Yaml;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100"})
+    public int size;
+
+    private List<Account> accounts;
+    private Type listType;
+    private String json;
+    private String yaml;
+
+    @Setup
+    public void setup() {
+        accounts = Account.generate(size);
+        listType = EntityModel.of(Account.class).getListType();
+        json = Json.write(accounts);
+        yaml = Yaml.write(accounts);
+    }
+
+    @Benchmark
+    public String jsonWrite() {
+        return Json.write(accounts);
+    }
+
+    @Benchmark
+    public void jsonWriteToStream() {
+        Json.defaultSerializer().write(accounts, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public List<Account> jsonRead() {
+        return Json.read(json, listType);
+    }
+
+    @Benchmark
+    public String yamlWrite() {
+        return Yaml.write(accounts);
+    }
+
+    @Benchmark
+    public List<Account> yamlRead() {
+        return Yaml.read(yaml, listType);
+    }
+
+    @Benchmark
+    public List<Account> yamlRoundTrip() {
+        return Yaml.read(Yaml.write(accounts), listType);
+    }
+}
@@ -0,0 +1,45 @@
+package io.semla.benchmark.model;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Entity
+public class Account {
+
+    public enum Status {
+        ACTIVE, SUSPENDED, CLOSED
+    }
+
+    @Id
+    @GeneratedValue
+    public int id;
+    public String name;
+    public String email;
+    public int score;
+    public long balance;
+    public Status status;
+    public Instant created;
+
+    public static Account with(int index) {
+        Account account = new Account();
+        account.name = "account-" + index;
+        account.email = "account-" + index + "@semla.io";
+        account.score = index % 1000;
+        account.balance = index * 31L;
+        account.status = Status.values()[index % Status.values().length];
+        account.created = Instant.ofEpochMilli(1_600_000_000_000L + index * 1000L);
+        return account;
+    }
+
+    public static List<Account> generate(int size) {
+        return IntStream.range(0, size).mapToObj(index -> {
+            Account account = with(index);
+            account.id = index + 1;
+            return account;
+        }).toList();
+    }
+}
@@ -1,9 +1,7 @@
 package io.semla.model;
 
-import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Supplier;
 
 import static io.semla.reflect.Types.supplierOf;
 import static java.util.stream.Collectors.toCollection;
@@ -12,6 +10,8 @@ import static java.util.stream.Collectors.toCollection;
 public class InstanceContext {
 
     private final Map<String, Object> cache = new LinkedHashMap<>();
+    // the keys cached or merged into while running evictingOnFailure
+    private Set<String> touched;
 
     public <E> Optional<E> getCached(E instance) {
         Model<E> model = Model.of(instance);
@@ -26,6 +26,9 @@ public class InstanceContext {
         if (instance != null) {
             Model<E> model = Model.of(instance);
             String key = model.toKeyString(instance);
+            if (touched != null) {
+                touched.add(key);
+            }
             if (cache.containsKey(key)) {
                 E cached = (E) cache.get(key);
                 model.merge(instance, cached);
@@ -39,4 +42,23 @@ public class InstanceContext {
     public <E, CollectionType extends Collection<E>> CollectionType remapOrCache(CollectionType instances) {
         return instances.stream().map(this::remapOrCache).collect(toCollection(supplierOf(instances.getClass())));
     }
+
+    /**
+     * runs the work, and evicts the instances it cached or merged into if it fails, as their state might never have been persisted.
+     */
+    public <R> R evictingOnFailure(Supplier<R> work) {
+        if (touched != null) {
+            // the outermost call evicts
+            return work.get();
+        }
+        touched = new HashSet<>();
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            touched.forEach(cache::remove);
+            throw e;
+        } finally {
+            touched = null;
+        }
+    }
 }
@@ -8,31 +8,34 @@ import io.semla.serialization.json.Json;
 import io.semla.util.Plural;
 import io.semla.util.Singleton;
 import io.semla.util.Strings;
+import io.semla.util.Unchecked;
 import io.semla.util.WithBuilder;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-
-import static io.semla.reflect.Types.asAccessible;
+import java.util.function.Supplier;
 
 @Slf4j
 @SuppressWarnings("unchecked")
 public class Model<T> {
 
-    private static final ReentrantLock LOCK = new ReentrantLock(true);
+    private static final ReentrantLock LOCK = new ReentrantLock();
     private static final Map<Predicate<Class<?>>, Function<Class<?>, Model<?>>> CUSTOM_MODELS_HANDLERS = new LinkedHashMap<>();
-    private static final Map<Class<?>, Model<?>> MODELS = new LinkedHashMap<>();
-    private static final Map<String, Class<?>> CLASSES_BY_NAME = new LinkedHashMap<>();
+    private static final Map<Class<?>, Model<?>> MODELS = new ConcurrentHashMap<>();
+    // registration order, which decides the first match when resolving a class by name
+    private static final List<Model<?>> MODELS_IN_ORDER = new CopyOnWriteArrayList<>();
+    private static final Map<String, Class<?>> CLASSES_BY_NAME = new ConcurrentHashMap<>();
 
     protected final Singleton<T> defaultInstance = Singleton.lazy(() -> {
         T instance = newInstance();
@@ -42,6 +45,15 @@ public class Model<T> {
         return instance;
     });
 
+    // resolved once, rather than looking up and checking the constructor on every instance
+    protected final Singleton<Supplier<T>> constructor = Singleton.lazy(() -> {
+        try {
+            return Constructors.noArgsOf(getType());
+        } catch (ReflectiveOperationException e) {
+            return () -> Unchecked.rethrow(e);
+        }
+    });
+
     protected final Class<T> clazz;
     protected final String singularName;
     protected final String pluralName;
@@ -107,8 +119,9 @@ public class Model<T> {
 
     public T newInstance() {
         try {
-            return asAccessible(clazz.getDeclaredConstructor()).newInstance();
-        } catch (InvocationTargetException | NoSuchMethodException | InstantiationException | IllegalAccessException e) {
+            return constructor.get().get();
+        } catch (Exception e) {
+            // whatever the constructor throws, even checked through the reflective fallback, is wrapped as it always was
             throw new SemlaException("couldn't create a new instance of " + clazz, e);
         }
     }
@@ -168,29 +181,38 @@ public class Model<T> {
     }
 
     protected static WithBuilder<Function<Class<?>, Model<?>>> extend(Predicate<Class<?>> predicate) {
-        return new WithBuilder<>(handler -> CUSTOM_MODELS_HANDLERS.put(predicate, handler));
+        return new WithBuilder<>(handler -> {
+            LOCK.lock();
+            try {
+                CUSTOM_MODELS_HANDLERS.put(predicate, handler);
+            } finally {
+                LOCK.unlock();
+            }
+        });
     }
 
-    private static final AtomicBoolean isInitialized = new AtomicBoolean();
+    private static volatile boolean isInitialized;
 
     public static <T> Model<T> of(Class<T> clazz) {
-        if (!isInitialized.getAndSet(true)) {
-            try {
-                Class.forName("io.semla.model.EntityModel");
-            } catch (Throwable e) {
-                log.warn("EntityModel not available...");
-            }
-        }
         if (Types.isAssignableTo(clazz, Proxy.class)) {
             clazz = (Class<T>) clazz.getInterfaces()[0];
         }
         Model<T> model = (Model<T>) MODELS.get(clazz);
         if (model == null) {
+            // the lock is only taken on a miss, the registry itself is safe to read concurrently
+            initialize();
+            LOCK.lock();
             try {
-                LOCK.lock();
-                if (!MODELS.containsKey(clazz)) {
+                model = (Model<T>) MODELS.get(clazz);
+                if (model == null) {
                     model = createModel(clazz);
-                    MODELS.put(clazz, model);
+                    Model<T> existing = (Model<T>) MODELS.putIfAbsent(clazz, model);
+                    if (existing != null) {
+                        // a recursive resolution of the same class already registered it
+                        model = existing;
+                    } else {
+                        MODELS_IN_ORDER.add(model);
+                    }
                 }
             } finally {
                 LOCK.unlock();
@@ -199,6 +221,18 @@ public class Model<T> {
         return model;
     }
 
+    private static void initialize() {
+        // outside the lock, so that we never wait for EntityModel's static initialization while holding it
+        if (!isInitialized) {
+            try {
+                Class.forName("io.semla.model.EntityModel");
+            } catch (Throwable e) {
+                log.warn("EntityModel not available...");
+            }
+            isInitialized = true;
+        }
+    }
+
     private static <T> Model<T> createModel(Class<T> clazz) {
         return CUSTOM_MODELS_HANDLERS.entrySet().stream()
             .filter(subModel -> subModel.getKey().test(clazz))
@@ -214,7 +248,7 @@ public class Model<T> {
 
     @SuppressWarnings({"ThrowableInstanceNotThrown", "ThrowableInstanceNeverThrown"})
     private static <T> Class<T> findClassBy(String name) {
-        return MODELS.values().stream()
+        return MODELS_IN_ORDER.stream()
             .filter(model -> model.getType().getCanonicalName().equalsIgnoreCase(name)
                 || model.getType().getSimpleName().equalsIgnoreCase(name)
                 || model.singularName().equals(name)
@@ -232,7 +266,13 @@ public class Model<T> {
     }
 
     public static void clear() {
-        MODELS.clear();
-        CLASSES_BY_NAME.clear();
+        LOCK.lock();
+        try {
+            MODELS.clear();
+            MODELS_IN_ORDER.clear();
+            CLASSES_BY_NAME.clear();
+        } finally {
+            LOCK.unlock();
+        }
     }
 }
@@ -0,0 +1,291 @@
+package io.semla.reflect;
+
+import com.esotericsoftware.reflectasm.FieldAccess;
+import com.esotericsoftware.reflectasm.MethodAccess;
+import io.semla.util.Javassist;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.Descriptor;
+import javassist.bytecode.Opcode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static io.semla.reflect.Modifier.*;
+
+/**
+ * Reads and writes a member of T. {@link #of(Field, Method, Method)} generates a dedicated class per member, nestmate of its
+ * declaring class, so that the JIT sees a monomorphic call it can inline. Primitive members also implement the specialized
+ * accessors, which skip the boxing of {@link #get(Object)} and {@link #set(Object, Object)}.
+ */
+@Slf4j
+@SuppressWarnings("unchecked")
+public abstract class Accessor<T> {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(
+        boolean.class, Boolean.class, byte.class, Byte.class, short.class, Short.class, char.class, Character.class,
+        int.class, Integer.class, long.class, Long.class, float.class, Float.class, double.class, Double.class
+    );
+    private static final Map<Class<?>, String> SPECIALIZATIONS = Map.of(
+        boolean.class, "Boolean", int.class, "Int", long.class, "Long", float.class, "Float", double.class, "Double"
+    );
+
+    public abstract Object get(T host);
+
+    public abstract void set(T host, Object value);
+
+    public boolean getBoolean(T host) {
+        return (Boolean) get(host);
+    }
+
+    public int getInt(T host) {
+        return ((Number) get(host)).intValue();
+    }
+
+    public long getLong(T host) {
+        return ((Number) get(host)).longValue();
+    }
+
+    public float getFloat(T host) {
+        return ((Number) get(host)).floatValue();
+    }
+
+    public double getDouble(T host) {
+        return ((Number) get(host)).doubleValue();
+    }
+
+    public void setBoolean(T host, boolean value) {
+        set(host, value);
+    }
+
+    public void setInt(T host, int value) {
+        set(host, value);
+    }
+
+    public void setLong(T host, long value) {
+        set(host, value);
+    }
+
+    public void setFloat(T host, float value) {
+        set(host, value);
+    }
+
+    public void setDouble(T host, double value) {
+        set(host, value);
+    }
+
+    public static <T> Accessor<T> of(Field field) {
+        return of(field, null, null);
+    }
+
+    public static <T> Accessor<T> of(Field field, Method getter, Method setter) {
+        if (canBeGenerated(field, getter, setter)) {
+            try {
+                return generate(field, getter, setter);
+            } catch (Exception | LinkageError e) {
+                log.debug("couldn't generate an accessor for {}, falling back to reflection", field, e);
+            }
+        }
+        return reflective(field, getter, setter);
+    }
+
+    private static boolean canBeGenerated(Field field, Method getter, Method setter) {
+        // the generated class is a nestmate of the field's declaring class, the methods need to be reachable from there
+        return isReachableFrom(field.getDeclaringClass(), getter)
+            && isReachableFrom(field.getDeclaringClass(), setter)
+            // final fields can only be written from their own class, they keep going through reflection
+            && (setter != null || Modifier.not(field, FINAL));
+    }
+
+    private static boolean isReachableFrom(Class<?> host, Method method) {
+        if (method == null) {
+            return true;
+        }
+        Class<?> declaringClass = method.getDeclaringClass();
+        boolean samePackage = declaringClass.getPackageName().equals(host.getPackageName())
+            && declaringClass.getClassLoader() == host.getClassLoader();
+        return Modifier.not(method, PRIVATE) && (samePackage || Modifier.is(method, PUBLIC) && Modifier.is(declaringClass, PUBLIC));
+    }
+
+    private static <T> Accessor<T> generate(Field field, Method getter, Method setter) throws ReflectiveOperationException {
+        Class<?> type = field.getType();
+        String typeDescriptor = type.descriptorString();
+        Consumer<Bytecode> read = getter != null ? invoke(getter) : code -> code.addGetfield(field.getDeclaringClass().getName(), field.getName(), typeDescriptor);
+        Consumer<Bytecode> write = setter != null ? invoke(setter) : code -> code.addPutfield(field.getDeclaringClass().getName(), field.getName(), typeDescriptor);
+        Class<?> readHost = getter != null ? getter.getDeclaringClass() : field.getDeclaringClass();
+        Class<?> writeHost = setter != null ? setter.getDeclaringClass() : field.getDeclaringClass();
+        String specialization = SPECIALIZATIONS.get(type);
+        Class<Accessor<T>> accessorClass = Javassist.defineHidden(field.getDeclaringClass(), Accessor.class.getSimpleName(), clazz -> {
+            clazz.extending(Accessor.class)
+                .addMethod("get", "(Ljava/lang/Object;)Ljava/lang/Object;", code -> {
+                    code.addAload(1);
+                    code.addCheckcast(readHost.getName());
+                    read.accept(code);
+                    if (type.isPrimitive()) {
+                        String wrapper = WRAPPERS.get(type).getName();
+                        code.addInvokestatic(wrapper, "valueOf", "(" + typeDescriptor + ")L" + wrapper.replace('.', '/') + ";");
+                    }
+                    code.addOpcode(Opcode.ARETURN);
+                })
+                .addMethod("set", "(Ljava/lang/Object;Ljava/lang/Object;)V", code -> {
+                    code.addAload(1);
+                    code.addCheckcast(writeHost.getName());
+                    code.addAload(2);
+                    if (type.isPrimitive()) {
+                        // null resets a primitive to its default, as Fields.setValue does
+                        code.addInvokestatic(Accessor.class.getName(), "unbox" + WRAPPERS.get(type).getSimpleName(), "(Ljava/lang/Object;)" + typeDescriptor);
+                    } else {
+                        code.addCheckcast(type.getName());
+                    }
+                    write.accept(code);
+                    code.addOpcode(Opcode.RETURN);
+                });
+            if (specialization != null) {
+                clazz
+                    .addMethod("get" + specialization, "(Ljava/lang/Object;)" + typeDescriptor, code -> {
+                        code.addAload(1);
+                        code.addCheckcast(readHost.getName());
+                        read.accept(code);
+                        code.addOpcode(returnOpcodeOf(type));
+                    })
+                    .addMethod("set" + specialization, "(Ljava/lang/Object;" + typeDescriptor + ")V", code -> {
+                        code.addAload(1);
+                        code.addCheckcast(writeHost.getName());
+                        load(code, type, 2);
+                        write.accept(code);
+                        code.addOpcode(Opcode.RETURN);
+                    });
+            }
+            return clazz;
+        });
+        return accessorClass.getDeclaredConstructor().newInstance();
+    }
+
+    private static Consumer<Bytecode> invoke(Method method) {
+        String descriptor = MethodType.methodType(method.getReturnType(), method.getParameterTypes()).descriptorString();
+        Class<?> declaringClass = method.getDeclaringClass();
+        return code -> {
+            if (declaringClass.isInterface()) {
+                code.addInvokeinterface(declaringClass.getName(), method.getName(), descriptor, Descriptor.paramSize(descriptor) + 1);
+            } else {
+                code.addInvokevirtual(declaringClass.getName(), method.getName(), descriptor);
+            }
+            // fluent setters return something we don't need
+            if (method.getParameterCount() == 1 && !method.getReturnType().equals(void.class)) {
+                code.addOpcode(method.getReturnType() == long.class || method.getReturnType() == double.class ? Opcode.POP2 : Opcode.POP);
+            }
+        };
+    }
+
+    private static int returnOpcodeOf(Class<?> type) {
+        if (type == long.class) {
+            return Opcode.LRETURN;
+        } else if (type == float.class) {
+            return Opcode.FRETURN;
+        } else if (type == double.class) {
+            return Opcode.DRETURN;
+        }
+        return Opcode.IRETURN;
+    }
+
+    private static void load(Bytecode code, Class<?> type, int index) {
+        if (type == long.class) {
+            code.addLload(index);
+        } else if (type == float.class) {
+            code.addFload(index);
+        } else if (type == double.class) {
+            code.addDload(index);
+        } else {
+            code.addIload(index);
+        }
+    }
+
+    // called by the generated accessors
+
+    public static boolean unboxBoolean(Object value) {
+        return value != null && (Boolean) value;
+    }
+
+    public static byte unboxByte(Object value) {
+        return value != null ? (Byte) value : 0;
+    }
+
+    public static short unboxShort(Object value) {
+        return value != null ? (Short) value : 0;
+    }
+
+    public static char unboxCharacter(Object value) {
+        return value != null ? (Character) value : 0;
+    }
+
+    public static int unboxInteger(Object value) {
+        return value != null ? (Integer) value : 0;
+    }
+
+    public static long unboxLong(Object value) {
+        return value != null ? (Long) value : 0;
+    }
+
+    public static float unboxFloat(Object value) {
+        return value != null ? (Float) value : 0;
+    }
+
+    public static double unboxDouble(Object value) {
+        return value != null ? (Double) value : 0;
+    }
+
+    private static <T> Accessor<T> reflective(Field field, Method getter, Method setter) {
+        Accessor<T> fieldAccessor;
+        if (Modifier.not(field, PRIVATE)) {
+            FieldAccess fieldAccess = FieldAccess.get(field.getDeclaringClass());
+            int index = fieldAccess.getIndex(field);
+            fieldAccessor = new Accessor<>() {
+                @Override
+                public Object get(T host) {
+                    return fieldAccess.get(host, index);
+                }
+
+                @Override
+                public void set(T host, Object value) {
+                    fieldAccess.set(host, index, value);
+                }
+            };
+        } else {
+            fieldAccessor = new Accessor<>() {
+                @Override
+                public Object get(T host) {
+                    return Fields.getValue(host, field);
+                }
+
+                @Override
+                public void set(T host, Object value) {
+                    Fields.setValue(host, field, value);
+                }
+            };
+        }
+        if (getter == null && setter == null) {
+            return fieldAccessor;
+        }
+        MethodAccess methodAccess = MethodAccess.get(field.getDeclaringClass());
+        int getIndex = getter != null ? methodAccess.getIndex(getter.getName()) : -1;
+        int setIndex = setter != null ? methodAccess.getIndex(setter.getName()) : -1;
+        return new Accessor<>() {
+            @Override
+            public Object get(T host) {
+                return getIndex > -1 ? methodAccess.invoke(host, getIndex) : fieldAccessor.get(host);
+            }
+
+            @Override
+            public void set(T host, Object value) {
+                if (setIndex > -1) {
+                    methodAccess.invoke(host, setIndex, value);
+                } else {
+                    fieldAccessor.set(host, value);
+                }
+            }
+        };
+    }
+}
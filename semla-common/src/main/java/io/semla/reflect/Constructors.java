@@ -0,0 +1,51 @@
+package io.semla.reflect;
+
+import io.semla.util.Javassist;
+import javassist.bytecode.Opcode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Constructor;
+import java.util.function.Supplier;
+
+import static io.semla.reflect.Modifier.ABSTRACT;
+import static io.semla.reflect.Types.asAccessible;
+import static io.semla.util.Unchecked.unchecked;
+
+@Slf4j
+@SuppressWarnings("unchecked")
+public final class Constructors {
+
+    private Constructors() {
+    }
+
+    /**
+     * Resolves the no-args constructor of clazz once and returns a supplier calling it. The supplier is a generated class,
+     * nestmate of clazz so that private constructors are reachable, and only falls back to reflection if that fails.
+     */
+    public static <T> Supplier<T> noArgsOf(Class<T> clazz) throws ReflectiveOperationException {
+        if (clazz.isInterface() || Modifier.is(clazz, ABSTRACT)) {
+            throw new InstantiationException(clazz.getName());
+        }
+        Constructor<T> constructor = clazz.getDeclaredConstructor();
+        try {
+            return generate(clazz);
+        } catch (Exception | LinkageError e) {
+            log.debug("couldn't generate a supplier for {}, falling back to reflection", constructor, e);
+        }
+        asAccessible(constructor);
+        return () -> unchecked(() -> constructor.newInstance());
+    }
+
+    private static <T> Supplier<T> generate(Class<T> clazz) throws ReflectiveOperationException {
+        Class<Supplier<T>> supplierClass = Javassist.defineHidden(clazz, "Constructor", builder -> builder
+            .implementing(Supplier.class)
+            .addMethod("get", "()Ljava/lang/Object;", code -> {
+                code.addNew(clazz.getName());
+                code.addOpcode(Opcode.DUP);
+                code.addInvokespecial(clazz.getName(), "<init>", "()V");
+                code.addOpcode(Opcode.ARETURN);
+            })
+        );
+        return supplierClass.getDeclaredConstructor().newInstance();
+    }
+}
@@ -1,7 +1,5 @@
 package io.semla.reflect;
 
-import com.esotericsoftware.reflectasm.FieldAccess;
-import com.esotericsoftware.reflectasm.MethodAccess;
 import io.semla.serialization.annotations.Deserialize;
 import io.semla.serialization.annotations.Serialize;
 import io.semla.serialization.annotations.When;
@@ -12,19 +10,17 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Optional;
-import java.util.function.BiConsumer;
 import java.util.function.Function;
 
-import static io.semla.reflect.Modifier.PRIVATE;
-
 @SuppressWarnings("unchecked")
 public class Member<T> implements Getter<T>, Setter<T> {
 
     private final String name;
-    private final Function<T, Object> get;
-    private final BiConsumer<T, Object> set;
+    private final Accessor<T> accessor;
     private final Class<T> declaringClass;
     private final Type genericType;
+    private final Class<?> type;
+    private final Class<?> boxedType;
     private final String genericString;
     private final Function<Class<? extends Annotation>, ? extends Annotation> getAnnotation;
     private final When deserializeWhen;
@@ -33,17 +29,17 @@ public class Member<T> implements Getter<T>, Setter<T> {
     private final String serializeAs;
 
     private Member(String name,
-                   Function<T, Object> get,
-                   BiConsumer<T, Object> set,
+                   Accessor<T> accessor,
                    Class<T> declaringClass,
                    Type genericType,
                    String genericString,
                    Function<Class<? extends Annotation>, ? extends Annotation> getAnnotation) {
         this.name = name;
-        this.get = get;
-        this.set = set;
+        this.accessor = accessor;
         this.declaringClass = declaringClass;
         this.genericType = genericType;
+        this.type = Types.rawTypeOf(genericType);
+        this.boxedType = Types.wrap(type);
         this.genericString = genericString;
         this.getAnnotation = getAnnotation;
         Optional<Deserialize> deserialize = annotation(Deserialize.class);
@@ -56,7 +52,7 @@ public class Member<T> implements Getter<T>, Setter<T> {
 
     @Override
     public <E> E getOn(T instance) {
-        return (E) get.apply(instance);
+        return (E) accessor.get(instance);
     }
 
     @Override
@@ -71,10 +67,18 @@ public class Member<T> implements Getter<T>, Setter<T> {
 
     @Override
     public T setOn(T host, Object value) {
-        set.accept(host, Types.unwrap(getType(), value));
+        // values already of the right type don't need to be unwrapped
+        accessor.set(host, value == null || boxedType.isInstance(value) ? value : Types.unwrap(type, value));
         return host;
     }
 
+    /**
+     * @return the underlying accessor, whose primitive variants avoid boxing but bypass {@link Types#unwrap(Class, Object)}
+     */
+    public Accessor<T> accessor() {
+        return accessor;
+    }
+
     @Override
     public When deserializeWhen() {
         return deserializeWhen;
@@ -95,6 +99,11 @@ public class Member<T> implements Getter<T>, Setter<T> {
         return genericType;
     }
 
+    @Override
+    public <E> Class<E> getType() {
+        return (Class<E>) type;
+    }
+
     @Override
     public String getName() {
         return name;
@@ -116,21 +125,9 @@ public class Member<T> implements Getter<T>, Setter<T> {
     }
 
     public static <T> Member<T> from(Field field) {
-        Function<T, Object> get;
-        BiConsumer<T, Object> set;
-        if (Modifier.not(field, PRIVATE)) {
-            FieldAccess fieldAccess = FieldAccess.get(field.getDeclaringClass());
-            int index = fieldAccess.getIndex(field);
-            get = host -> fieldAccess.get(host, index);
-            set = (host, value) -> fieldAccess.set(host, index, value);
-        } else {
-            get = host -> Fields.getValue(host, field);
-            set = (host, value) -> Fields.setValue(host, field, value);
-        }
         return new Member<>(
                 field.getName(),
-                get,
-                set,
+                Accessor.of(field),
                 (Class<T>) field.getDeclaringClass(),
                 field.getGenericType(),
                 field.toGenericString(),
@@ -139,8 +136,6 @@ public class Member<T> implements Getter<T>, Setter<T> {
     }
 
     public static <T> Member<T> from(Field field, Method getter, Method setter) {
-        Function<T, Object> get;
-        BiConsumer<T, Object> set;
         Function<Class<? extends Annotation>, ? extends Annotation> getAnnotation = annotationClass -> {
             if (getter != null && getter.isAnnotationPresent(annotationClass)) {
                 return getter.getAnnotation(annotationClass);
@@ -150,24 +145,9 @@ public class Member<T> implements Getter<T>, Setter<T> {
             }
             return field.getAnnotation(annotationClass);
         };
-        Member<T> member = Member.from(field);
-        MethodAccess methodAccess = MethodAccess.get(member.getDeclaringClass());
-        if (getter != null) {
-            int getIndex = methodAccess.getIndex(getter.getName());
-            get = host -> methodAccess.invoke(host, getIndex);
-        } else {
-            get = member::getOn;
-        }
-        if (setter != null) {
-            int setIndex = methodAccess.getIndex(setter.getName());
-            set = (host, value) -> methodAccess.invoke(host, setIndex, value);
-        } else {
-            set = member::setOn;
-        }
         return new Member<>(
                 field.getName(),
-                get,
-                set,
+                Accessor.of(field, getter, setter),
                 (Class<T>) field.getDeclaringClass(),
                 field.getGenericType(),
                 field.toGenericString(),
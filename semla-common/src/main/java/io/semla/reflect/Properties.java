@@ -3,7 +3,6 @@ package io.semla.reflect;
 import io.semla.util.ImmutableList;
 import io.semla.util.ImmutableMap;
 import io.semla.util.Maps;
-import io.semla.util.Singleton;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -14,45 +13,69 @@ import java.util.Map;
 
 import static io.semla.reflect.Modifier.*;
 
+@SuppressWarnings("unchecked")
 public class Properties {
 
+    private static final ClassValue<Map<String, ? extends Member<?>>> MEMBERS = new ClassValue<>() {
+        @Override
+        protected Map<String, ? extends Member<?>> computeValue(Class<?> clazz) {
+            return computeMembersOf(clazz);
+        }
+    };
+
+    private static final ClassValue<List<? extends Getter<?>>> GETTERS = new ClassValue<>() {
+        @Override
+        protected List<? extends Getter<?>> computeValue(Class<?> clazz) {
+            return computeGettersOf(clazz);
+        }
+    };
+
+    private static final ClassValue<Map<String, ? extends Setter<?>>> SETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, ? extends Setter<?>> computeValue(Class<?> clazz) {
+            return computeSettersOf(clazz);
+        }
+    };
+
     private Properties() {}
 
     public static <T> Map<String, Member<T>> membersOf(Class<T> clazz) {
-        return Singleton.named("Properties.membersOf." + clazz.getCanonicalName(), () -> {
-            Map<String, Member<T>> membersByName = new LinkedHashMap<>();
-            Fields.byName(clazz).forEach((name, field) -> {
-                if (isVisible(field)) {
-                    membersByName.put(name, Member.from(field));
+        return (Map<String, Member<T>>) MEMBERS.get(clazz);
+    }
+
+    private static <T> Map<String, Member<T>> computeMembersOf(Class<T> clazz) {
+        Map<String, Member<T>> membersByName = new LinkedHashMap<>();
+        Fields.byName(clazz).forEach((name, field) -> {
+            if (isVisible(field)) {
+                membersByName.put(name, Member.from(field));
+            }
+        });
+        Map<String, Method[]> methodsByName = new LinkedHashMap<>();
+        Methods.byName(clazz).forEach((name, method) -> {
+            if (isVisible(method)) {
+                if (Getter.isGetter(method)) {
+                    methodsByName.computeIfAbsent(Getter.stripPrefix(method), m -> new Method[2])[0] = method;
+                } else if (Setter.isSetter(method)) {
+                    methodsByName.computeIfAbsent(Setter.stripPrefix(method), m -> new Method[2])[1] = method;
                 }
-            });
-            Map<String, Method[]> methodsByName = new LinkedHashMap<>();
-            Methods.byName(clazz).forEach((name, method) -> {
-                if (isVisible(method)) {
-                    if (Getter.isGetter(method)) {
-                        methodsByName.computeIfAbsent(Getter.stripPrefix(method), m -> new Method[2])[0] = method;
-                    } else if (Setter.isSetter(method)) {
-                        methodsByName.computeIfAbsent(Setter.stripPrefix(method), m -> new Method[2])[1] = method;
+            }
+        });
+        methodsByName.forEach((name, methods) -> {
+                Field field = Fields.getField(clazz, name);
+                if (field != null) {
+                    Method getter = methods[0];
+                    if (getter != null && !getter.getReturnType().equals(field.getType())) {
+                        getter = null;
                     }
-                }
-            });
-            methodsByName.forEach((name, methods) -> {
-                    Field field = Fields.getField(clazz, name);
-                    if (field != null) {
-                        Method getter = methods[0];
-                        if (getter != null && !getter.getReturnType().equals(field.getType())) {
-                            getter = null;
-                        }
-                        Method setter = methods[1];
-                        if (setter != null && !setter.getParameterTypes()[0].equals(field.getType())) {
-                            setter = null;
-                        }
-                        membersByName.put(name, Member.from(field, getter, setter));
+                    Method setter = methods[1];
+                    if (setter != null && !setter.getParameterTypes()[0].equals(field.getType())) {
+                        setter = null;
                     }
+                    membersByName.put(name, Member.from(field, getter, setter));
                 }
-            );
-            return ImmutableMap.copyOf(sortByFieldOrder(membersByName, clazz));
-        }).get();
+            }
+        );
+        return ImmutableMap.copyOf(sortByFieldOrder(membersByName, clazz));
     }
 
     public static boolean isVisible(Method method) {
@@ -63,54 +86,56 @@ public class Properties {
         return Modifier.not(field, STATIC, TRANSIENT, PROTECTED, PRIVATE);
     }
 
-    @SuppressWarnings("unchecked")
     public static <T> List<Getter<T>> gettersOf(T instance) {
         return gettersOf((Class<T>) instance.getClass());
     }
 
     public static <T> List<Getter<T>> gettersOf(Class<T> clazz) {
-        return Singleton.named("Properties.gettersOf." + clazz.getCanonicalName(), () -> {
-            Map<String, Getter<T>> gettersByName = new LinkedHashMap<>();
-            Fields.byName(clazz).forEach((name, field) -> {
-                if (isVisible(field)) {
-                    gettersByName.put(name, Member.from(field));
-                }
-            });
-
-            Methods.byName(clazz).forEach((name, method) -> {
-                if (isVisible(method) && method.getParameterCount() == 0 && !method.getReturnType().equals(Void.class)) {
-                    Getter<T> getter = Getter.from(method);
-                    gettersByName.put(getter.serializeAs(), getter);
-                }
-            });
+        return (List<Getter<T>>) GETTERS.get(clazz);
+    }
 
-            return ImmutableList.copyOf(sortByFieldOrder(gettersByName, clazz).values());
-        }).get();
+    private static <T> List<Getter<T>> computeGettersOf(Class<T> clazz) {
+        Map<String, Getter<T>> gettersByName = new LinkedHashMap<>();
+        Fields.byName(clazz).forEach((name, field) -> {
+            if (isVisible(field)) {
+                gettersByName.put(name, Member.from(field));
+            }
+        });
+
+        Methods.byName(clazz).forEach((name, method) -> {
+            if (isVisible(method) && method.getParameterCount() == 0 && !method.getReturnType().equals(Void.class)) {
+                Getter<T> getter = Getter.from(method);
+                gettersByName.put(getter.serializeAs(), getter);
+            }
+        });
+
+        return ImmutableList.copyOf(sortByFieldOrder(gettersByName, clazz).values());
     }
 
-    @SuppressWarnings("unchecked")
     public static <T> Map<String, Setter<T>> settersOf(T instance) {
         return settersOf((Class<T>) instance.getClass());
     }
 
     public static <T> Map<String, Setter<T>> settersOf(Class<T> clazz) {
-        return Singleton.named("Properties.settersOf." + clazz.getCanonicalName(), () -> {
-            Map<String, Setter<T>> settersByName = new LinkedHashMap<>();
-            Fields.byName(clazz).forEach((name, field) -> {
-                if (isVisible(field)) {
-                    settersByName.put(name, Member.from(field));
-                }
-            });
-
-            Methods.byName(clazz).forEach((name, method) -> {
-                if (isVisible(method) && method.getParameterCount() == 1) {
-                    Setter<T> setter = Setter.from(method);
-                    settersByName.put(setter.deserializeFrom(), setter);
-                }
-            });
+        return (Map<String, Setter<T>>) SETTERS.get(clazz);
+    }
 
-            return ImmutableMap.copyOf(settersByName);
-        }).get();
+    private static <T> Map<String, Setter<T>> computeSettersOf(Class<T> clazz) {
+        Map<String, Setter<T>> settersByName = new LinkedHashMap<>();
+        Fields.byName(clazz).forEach((name, field) -> {
+            if (isVisible(field)) {
+                settersByName.put(name, Member.from(field));
+            }
+        });
+
+        Methods.byName(clazz).forEach((name, method) -> {
+            if (isVisible(method) && method.getParameterCount() == 1) {
+                Setter<T> setter = Setter.from(method);
+                settersByName.put(setter.deserializeFrom(), setter);
+            }
+        });
+
+        return ImmutableMap.copyOf(settersByName);
     }
 
     private static <T, PropertyType extends Property<T>> Map<String, PropertyType> sortByFieldOrder(Map<String, PropertyType> propertiesByName, Class<T> clazz) {
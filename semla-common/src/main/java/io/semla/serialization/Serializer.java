@@ -17,7 +17,7 @@ import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.time.temporal.Temporal;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -36,7 +36,14 @@ import static java.util.Optional.ofNullable;
 public abstract class Serializer<ContextType extends Serializer<?>.Context> {
 
     private static final Map<Predicate<Type>, BiConsumer<Serializer<?>.Context, Object>> CUSTOM_WRITERS = new LinkedHashMap<>();
-    private final Map<Type, BiConsumer<ContextType, Object>> writers = Collections.synchronizedMap(new LinkedHashMap<>());
+    // read on every value written, a lookup must not take a lock
+    private final Map<Type, BiConsumer<ContextType, Object>> writers = new ConcurrentHashMap<>();
+    private final ClassValue<ObjectWriter<?>> objectWriters = new ClassValue<>() {
+        @Override
+        protected ObjectWriter<?> computeValue(Class<?> type) {
+            return new ObjectWriter<>(type);
+        }
+    };
     private final Set<Option> defaultOptions = new LinkedHashSet<>();
 
     public Set<Option> defaultOptions() {
@@ -50,8 +57,9 @@ public abstract class Serializer<ContextType extends Serializer<?>.Context> {
     }
 
     public void write(Object object, OutputStream outputStream, Option... options) {
-        CharacterWriter writer = new OutputStreamWriter(outputStream);
+        OutputStreamWriter writer = new OutputStreamWriter(outputStream);
         getWriterFor(object).accept(newContext(writer, Option.concat(defaultOptions, options)));
+        writer.flush();
     }
 
     protected abstract ContextType newContext(CharacterWriter writer, Set<Option> options);
@@ -67,121 +75,58 @@ public abstract class Serializer<ContextType extends Serializer<?>.Context> {
     }
 
     protected BiConsumer<ContextType, Object> getWriterForType(Type type) {
-        return writers.computeIfAbsent(type, t ->
-            CUSTOM_WRITERS.entrySet().stream()
-                .filter(e -> e.getKey().test(t))
-                .map(Map.Entry::getValue)
-                .map(Types::<BiConsumer<ContextType, Object>>cast)
-                .findFirst()
-                .orElseGet(() -> {
-                    Class<?> rawType = rawTypeOf(t);
-                    if (rawType.isArray()) {
-                        return (c, v) -> writeArray(c, Lists.fromArray(v));
-                    } else if (isAssignableTo(t, Collection.class)) {
-                        return (c, v) -> writeArray(c, (Collection<?>) v);
-                    } else if (isAssignableTo(t, Map.class)) {
-                        return (c, v) -> writeMap(c, (Map<?, ?>) v);
-                    } else if (t.equals(String.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((String) o));
-                    } else if (isAssignableTo(t, Boolean.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((boolean) o));
-                    } else if (isAssignableTo(t, Integer.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((int) o));
-                    } else if (isAssignableTo(t, Short.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((short) o));
-                    } else if (isAssignableTo(t, Byte.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((byte) o));
-                    } else if (isAssignableTo(t, Long.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((long) o));
-                    } else if (isAssignableTo(t, Float.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((float) o));
-                    } else if (isAssignableTo(t, Double.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((double) o));
-                    } else if (isAssignableTo(t, Number.class)) {
-                        return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append(Strings.toString(o)));
-                    } else if (isAssignableToOneOf(t, Character.class, Date.class, Temporal.class, Calendar.class, UUID.class) || rawType.isEnum()) {
-                        return (c, v) -> getWriterForType(String.class).accept(c, Strings.toString(v));
-                    }
-                    return this::writeObject;
-                }));
-    }
-
-    protected <T> void writeObject(ContextType context, T object) {
-        Model<T> model = Model.of(object);
-        startObject(context);
-
-        AtomicBoolean isFirst = new AtomicBoolean(true);
-
-        Types.getParentClassAnnotatedWith(object.getClass(), TypeInfo.class).ifPresent(superClass -> {
-            if (object.getClass().isAnnotationPresent(TypeName.class)) {
-                writeKey(context, superClass.getAnnotation(TypeInfo.class).property());
-                getWriterFor(object.getClass().getAnnotation(TypeName.class).value()).accept(context);
-                next(context);
+        BiConsumer<ContextType, Object> writer = writers.get(type);
+        if (writer == null) {
+            writer = newWriterForType(type);
+            BiConsumer<ContextType, Object> concurrentWriter = writers.putIfAbsent(type, writer);
+            if (concurrentWriter != null) {
+                writer = concurrentWriter;
             }
-        });
-
-        List<Getter<T>> getters;
-        if (context.sortAlphabetically()) {
-            getters = Singleton.named("Serializer.sortedGettersOf." + model.getType(),
-                gettersOf(model.getType()).stream().sorted(comparing(Property::getName))::toList
-            ).get();
-        } else {
-            getters = Singleton.named("Serializer.gettersOf." + model.getType(),
-                () -> {
-                    List<Getter<T>> original = new ArrayList<>(gettersOf(model.getType()));
-                    Map<Integer, Getter<T>> fixedIndexes = new LinkedHashMap<>();
-                    for (int i = 0; i < original.size(); i++) {
-                        Optional<Serialize> serialize = original.get(i).annotation(Serialize.class);
-                        if (serialize.isPresent() && serialize.get().order() > -1) {
-                            fixedIndexes.put(serialize.get().order(), original.get(i));
-                            original.remove(i--);
-                        }
-                    }
-                    if (!fixedIndexes.isEmpty()) {
-                        fixedIndexes.entrySet().stream()
-                            .sorted(comparingInt(Map.Entry::getKey))
-                            .forEach(e -> {
-                                original.add(e.getKey(), e.getValue());
-                            });
-                    }
-                    return ImmutableList.copyOf(original);
-                }
-            ).get();
         }
-        getters.forEach(getter -> {
-            When serializeWhen = context.serializeWhen().orElseGet(getter::serializeWhen);
-            if (serializeWhen != NEVER) {
-                Object value = getter.getOn(object);
-                switch (serializeWhen) {
-                    case NOT_NULL:
-                        if (value == null) {
-                            return;
-                        }
-                        break;
-                    case NOT_EMPTY:
-                        if (value != null
-                            && ((isAssignableToOneOf(value.getClass(), Collection.class) && ((Collection<?>) value).isEmpty())
-                            || (isAssignableToOneOf(value.getClass(), Map.class) && ((Map<?, ?>) value).isEmpty()))
-                        ) {
-                            return;
-                        }
-                        break;
-                    case NOT_DEFAULT:
-                        if (model.isDefaultValue(getter, value)) {
-                            return;
-                        }
-                        break;
-                    default:
-                        break;
-                }
-                if (!isFirst.getAndSet(false)) {
-                    next(context);
+        return writer;
+    }
+
+    private BiConsumer<ContextType, Object> newWriterForType(Type t) {
+        return CUSTOM_WRITERS.entrySet().stream()
+            .filter(e -> e.getKey().test(t))
+            .map(Map.Entry::getValue)
+            .map(Types::<BiConsumer<ContextType, Object>>cast)
+            .findFirst()
+            .orElseGet(() -> {
+                Class<?> rawType = rawTypeOf(t);
+                if (rawType.isArray()) {
+                    return (c, v) -> writeArray(c, Lists.fromArray(v));
+                } else if (isAssignableTo(t, Collection.class)) {
+                    return (c, v) -> writeArray(c, (Collection<?>) v);
+                } else if (isAssignableTo(t, Map.class)) {
+                    return (c, v) -> writeMap(c, (Map<?, ?>) v);
+                } else if (t.equals(String.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((String) o));
+                } else if (isAssignableTo(t, Boolean.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((boolean) o));
+                } else if (isAssignableTo(t, Integer.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((int) o));
+                } else if (isAssignableTo(t, Short.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((short) o));
+                } else if (isAssignableTo(t, Byte.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((byte) o));
+                } else if (isAssignableTo(t, Long.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((long) o));
+                } else if (isAssignableTo(t, Float.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((float) o));
+                } else if (isAssignableTo(t, Double.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append((double) o));
+                } else if (isAssignableTo(t, Number.class)) {
+                    return (c, v) -> writeWith(c, v, (contextType, o) -> contextType.writer().append(Strings.toString(o)));
+                } else if (isAssignableToOneOf(t, Character.class, Date.class, Temporal.class, Calendar.class, UUID.class) || rawType.isEnum()) {
+                    return (c, v) -> getWriterForType(String.class).accept(c, Strings.toString(v));
                 }
-                writeKey(context, Optional.of(getter.serializeAs()).filter(as -> !as.equals("")).orElse(getter.getName()));
-                getWriterFor(value).accept(context);
-            }
-        });
-        endObject(context);
+                return this::writeObject;
+            });
+    }
+
+    protected <T> void writeObject(ContextType context, T object) {
+        ((ObjectWriter<T>) objectWriters.get(object.getClass())).write(context, object);
     }
 
     protected void writeWith(ContextType context, Object value, BiConsumer<ContextType, Object> writer) {
@@ -229,6 +174,17 @@ public abstract class Serializer<ContextType extends Serializer<?>.Context> {
 
     protected abstract void writeKey(ContextType context, Object key);
 
+    /**
+     * @return the key as {@link #writeEncodedKey(Context, Object)} expects it, computed once per property
+     */
+    protected Object encodeKey(String key) {
+        return key;
+    }
+
+    protected void writeEncodedKey(ContextType context, Object encodedKey) {
+        writeKey(context, encodedKey);
+    }
+
     protected abstract void endArray(ContextType context);
 
     protected abstract void startArray(ContextType context);
@@ -256,6 +212,93 @@ public abstract class Serializer<ContextType extends Serializer<?>.Context> {
         }
     }
 
+    private final class ObjectWriter<T> {
+
+        private final Model<T> model;
+        private final Object typeKey;
+        private final String typeName;
+        private final List<PropertyWriter> properties;
+        private final List<PropertyWriter> sortedProperties;
+
+        private ObjectWriter(Class<T> type) {
+            model = Model.of(type);
+            Optional<Class<?>> parentClass = Types.getParentClassAnnotatedWith(type, TypeInfo.class);
+            if (parentClass.isPresent() && type.isAnnotationPresent(TypeName.class)) {
+                typeKey = encodeKey(parentClass.get().getAnnotation(TypeInfo.class).property());
+                typeName = type.getAnnotation(TypeName.class).value();
+            } else {
+                typeKey = null;
+                typeName = null;
+            }
+            List<Getter<T>> getters = new ArrayList<>(gettersOf(type));
+            sortedProperties = getters.stream().sorted(comparing(Property::getName)).map(PropertyWriter::new).toList();
+            Map<Integer, Getter<T>> fixedIndexes = new LinkedHashMap<>();
+            for (int i = 0; i < getters.size(); i++) {
+                Optional<Serialize> serialize = getters.get(i).annotation(Serialize.class);
+                if (serialize.isPresent() && serialize.get().order() > -1) {
+                    fixedIndexes.put(serialize.get().order(), getters.get(i));
+                    getters.remove(i--);
+                }
+            }
+            fixedIndexes.entrySet().stream()
+                .sorted(comparingInt(Map.Entry::getKey))
+                .forEach(e -> getters.add(e.getKey(), e.getValue()));
+            properties = getters.stream().map(PropertyWriter::new).toList();
+        }
+
+        private void write(ContextType context, T object) {
+            startObject(context);
+            boolean isFirst = true;
+            if (typeKey != null) {
+                writeEncodedKey(context, typeKey);
+                getWriterFor(typeName).accept(context);
+                isFirst = false;
+            }
+            When contextSerializeWhen = context.serializeWhen().orElse(null);
+            List<PropertyWriter> propertyWriters = context.sortAlphabetically() ? sortedProperties : properties;
+            for (int i = 0; i < propertyWriters.size(); i++) {
+                PropertyWriter property = propertyWriters.get(i);
+                When serializeWhen = contextSerializeWhen != null ? contextSerializeWhen : property.serializeWhen;
+                if (serializeWhen != NEVER) {
+                    Object value = property.getter.getOn(object);
+                    if (property.skip(serializeWhen, value)) {
+                        continue;
+                    }
+                    if (!isFirst) {
+                        next(context);
+                    }
+                    isFirst = false;
+                    writeEncodedKey(context, property.key);
+                    getWriterFor(value).accept(context);
+                }
+            }
+            endObject(context);
+        }
+
+        private final class PropertyWriter {
+
+            private final Getter<T> getter;
+            private final When serializeWhen;
+            private final Object key;
+
+            private PropertyWriter(Getter<T> getter) {
+                this.getter = getter;
+                this.serializeWhen = getter.serializeWhen();
+                this.key = encodeKey(Strings.notNullOrEmpty(getter.serializeAs()) ? getter.serializeAs() : getter.getName());
+            }
+
+            private boolean skip(When serializeWhen, Object value) {
+                return switch (serializeWhen) {
+                    case NOT_NULL -> value == null;
+                    case NOT_EMPTY -> value instanceof Collection<?> collection && collection.isEmpty()
+                        || value instanceof Map<?, ?> map && map.isEmpty();
+                    case NOT_DEFAULT -> model.isDefaultValue(getter, value);
+                    default -> false;
+                };
+            }
+        }
+    }
+
     public abstract class Context {
 
         private final Set<Object> serialized = new HashSet<>();
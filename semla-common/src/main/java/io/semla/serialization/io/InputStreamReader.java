@@ -5,13 +5,44 @@ import io.semla.exception.DeserializationException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
+/**
+ * Decodes the stream in bulk through a reusable byte window rather than one {@link InputStream#read()} per character.
+ */
 public class InputStreamReader extends CharacterReader {
 
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final InputStream inputStream;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private int decoded;
+    private boolean endOfInput;
 
     public InputStreamReader(InputStream inputStream) {
+        this(inputStream, StandardCharsets.UTF_8);
+    }
+
+    public InputStreamReader(InputStream inputStream, Charset charset) {
+        this(inputStream, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    public InputStreamReader(InputStream inputStream, Charset charset, int bufferSize) {
         this.inputStream = inputStream;
+        this.decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // the window must at least fit the longest encoded sequence, or the decoder would never make progress
+        bufferSize = Math.max(bufferSize, 8);
+        this.bytes = ByteBuffer.allocate(bufferSize).flip();
+        this.chars = CharBuffer.allocate(bufferSize).flip();
     }
 
     @Override
@@ -21,18 +52,45 @@ public class InputStreamReader extends CharacterReader {
 
     @Override
     public int length() {
-        try {
-            int available = inputStream.available();
-            return available > 0 ? current() + available : Integer.MAX_VALUE;
-        } catch (IOException e) {
-            throw new DeserializationException(e.getMessage(), e);
-        }
+        return endOfInput && !chars.hasRemaining() ? decoded : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return chars.hasRemaining() || fill();
     }
 
     @Override
     protected char read() {
+        return chars.get();
+    }
+
+    private boolean fill() {
+        if (endOfInput) {
+            return false;
+        }
         try {
-            return (char) inputStream.read();
+            chars.clear();
+            do {
+                bytes.compact();
+                int available = inputStream.available();
+                int read = inputStream.read(bytes.array(), bytes.position(),
+                    available > 0 ? Math.min(available, bytes.remaining()) : bytes.remaining());
+                if (read > 0) {
+                    bytes.position(bytes.position() + read);
+                }
+                bytes.flip();
+                if (read < 0) {
+                    endOfInput = true;
+                    decoder.decode(bytes, chars, true);
+                    decoder.flush(chars);
+                } else {
+                    decoder.decode(bytes, chars, false);
+                }
+            } while (chars.position() == 0 && !endOfInput);
+            chars.flip();
+            decoded += chars.remaining();
+            return chars.hasRemaining();
         } catch (IOException e) {
             throw new DeserializationException(e.getMessage(), e);
         }
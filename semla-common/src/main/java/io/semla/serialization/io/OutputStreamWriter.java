@@ -2,71 +2,175 @@ package io.semla.serialization.io;
 
 import io.semla.exception.SerializationException;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 
-public class OutputStreamWriter implements CharacterWriter {
+/**
+ * Encodes straight to UTF-8 into a buffer borrowed from a per-thread pool, and only hands it to the stream
+ * when it is full or on {@link #flush()}, which also returns the buffer to the pool.
+ */
+public class OutputStreamWriter implements CharacterWriter, Flushable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<>();
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes();
 
     private final OutputStream outputStream;
-    private int length;
+    private final int bufferSize;
+    private byte[] buffer;
+    private int position;
+    private long length;
 
     public OutputStreamWriter(OutputStream outputStream) {
-        this.outputStream = outputStream;
+        this(outputStream, DEFAULT_BUFFER_SIZE);
     }
 
-    private void write(byte[] bytes) {
-        try {
-            length += bytes.length;
-            outputStream.write(bytes);
-        } catch (IOException e) {
-            throw new SerializationException(e.getMessage(), e);
-        }
+    public OutputStreamWriter(OutputStream outputStream, int bufferSize) {
+        this.outputStream = outputStream;
+        this.bufferSize = Math.max(bufferSize, LONG_MIN_VALUE.length);
     }
 
     @Override
     public CharacterWriter append(String value) {
-        write(value.getBytes());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                ensureCapacity(1);
+                buffer[position++] = (byte) c;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                writeCodePoint(c);
+            }
+        }
         return this;
     }
 
     @Override
     public CharacterWriter append(boolean b) {
-        append(Boolean.toString(b));
-        return this;
+        return write(b ? TRUE : FALSE);
     }
 
     @Override
     public CharacterWriter append(char c) {
-        append(Character.toString(c));
+        if (c < 0x80) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) c;
+        } else {
+            writeCodePoint(c);
+        }
         return this;
     }
 
     @Override
     public CharacterWriter append(int i) {
-        append(Integer.toString(i));
-        return this;
+        return append((long) i);
     }
 
     @Override
     public CharacterWriter append(long l) {
-        append(Long.toString(l));
+        if (l == Long.MIN_VALUE) {
+            return write(LONG_MIN_VALUE);
+        }
+        ensureCapacity(20);
+        if (l < 0) {
+            buffer[position++] = '-';
+            l = -l;
+        }
+        int digits = 1;
+        for (long remaining = l / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + l % 10);
+            l /= 10;
+        }
+        position += digits;
         return this;
     }
 
     @Override
     public CharacterWriter append(float f) {
-        append(Float.toString(f));
-        return this;
+        return append(Float.toString(f));
     }
 
     @Override
     public CharacterWriter append(double d) {
-        append(Double.toString(d));
-        return this;
+        return append(Double.toString(d));
     }
 
     @Override
     public boolean isEmpty() {
-        return length == 0;
+        return length + position == 0;
+    }
+
+    @Override
+    public void flush() {
+        if (buffer != null) {
+            drain();
+            BUFFERS.set(buffer);
+            buffer = null;
+        }
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+
+    private CharacterWriter write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    private void writeCodePoint(int codePoint) {
+        ensureCapacity(4);
+        if (codePoint < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (codePoint >> 6));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate((char) codePoint) && codePoint <= Character.MAX_VALUE) {
+            // lone surrogate, not encodable
+            buffer[position++] = '?';
+        } else if (codePoint < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | (codePoint >> 12));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer == null) {
+            buffer = BUFFERS.get();
+            if (buffer != null && buffer.length == bufferSize) {
+                BUFFERS.remove();
+            } else {
+                buffer = new byte[bufferSize];
+            }
+        } else if (position + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (position > 0) {
+            try {
+                outputStream.write(buffer, 0, position);
+                length += position;
+                position = 0;
+            } catch (IOException e) {
+                throw new SerializationException(e.getMessage(), e);
+            }
+        }
     }
 }
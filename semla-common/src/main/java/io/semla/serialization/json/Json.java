@@ -4,6 +4,7 @@ import io.semla.serialization.Deserializer;
 import io.semla.serialization.Serializer;
 import io.semla.util.Strings;
 
+import java.io.InputStream;
 import java.lang.reflect.Type;
 
 public class Json {
@@ -33,6 +34,18 @@ public class Json {
         return JSON_DESERIALIZER.read(json, type, options);
     }
 
+    public static <T> T read(InputStream inputStream, Deserializer.Option... options) {
+        return JSON_DESERIALIZER.read(inputStream, options);
+    }
+
+    public static <T> T read(InputStream inputStream, Class<T> clazz, Deserializer.Option... options) {
+        return JSON_DESERIALIZER.read(inputStream, clazz, options);
+    }
+
+    public static <T> T read(InputStream inputStream, Type type, Deserializer.Option... options) {
+        return JSON_DESERIALIZER.read(inputStream, type, options);
+    }
+
     public static <T> String write(T object, Serializer.Option... options) {
         return JSON_SERIALIZER.write(object, options);
     }
@@ -79,6 +79,23 @@ public class JsonSerializer extends Serializer<JsonSerializer.Context> {
         }
     }
 
+    @Override
+    protected Object encodeKey(String key) {
+        return "\"" + key + "\":";
+    }
+
+    @Override
+    protected void writeEncodedKey(Context context, Object encodedKey) {
+        if (context.isPretty()) {
+            context.writer().newLine();
+            context.writeIndentation();
+            context.writer().append((String) encodedKey);
+            context.writer().append(" ");
+        } else {
+            context.writer().append((String) encodedKey);
+        }
+    }
+
     @Override
     public void startArray(Context context) {
         if (context.isPretty()) {
@@ -3,6 +3,7 @@ package io.semla.serialization.yaml;
 import io.semla.serialization.Deserializer;
 import io.semla.serialization.Serializer;
 
+import java.io.InputStream;
 import java.lang.reflect.Type;
 
 public class Yaml {
@@ -32,6 +33,18 @@ public class Yaml {
         return YAML_DESERIALIZER.read(content, type, options);
     }
 
+    public static <T> T read(InputStream inputStream, Deserializer.Option... options) {
+        return YAML_DESERIALIZER.read(inputStream, options);
+    }
+
+    public static <T> T read(InputStream inputStream, Class<T> clazz, Deserializer.Option... options) {
+        return YAML_DESERIALIZER.read(inputStream, clazz, options);
+    }
+
+    public static <T> T read(InputStream inputStream, Type type, Deserializer.Option... options) {
+        return YAML_DESERIALIZER.read(inputStream, type, options);
+    }
+
     public static String write(Object object, Serializer.Option... options) {
         return YAML_SERIALIZER.write(object, options);
     }
@@ -4,15 +4,17 @@ import io.semla.reflect.Annotations;
 import io.semla.reflect.Modifier;
 import io.semla.reflect.Types;
 import javassist.*;
-import javassist.bytecode.AnnotationsAttribute;
-import javassist.bytecode.ConstPool;
+import javassist.bytecode.*;
 import javassist.bytecode.annotation.*;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
@@ -27,6 +29,7 @@ public class Javassist {
 
     private static final ReentrantLock lock = new ReentrantLock(true);
     private static final Map<String, Class<?>> JAVASSIST_CLASSES = synchronizedMap(new HashMap<>());
+    private static final AtomicInteger HIDDEN_CLASSES = new AtomicInteger();
 
     public static <T> Class<T> getOrCreate(String classname, Class<?> neighbor, UnaryOperator<ClassBuilder> builder) {
         Class<T> clazz = (Class<T>) JAVASSIST_CLASSES.get(classname);
@@ -49,6 +52,18 @@ public class Javassist {
         return clazz;
     }
 
+    /**
+     * defines a new hidden class, nestmate of the given host, so that it can access its private members.
+     */
+    public static <T> Class<T> defineHidden(Class<?> host, String name, UnaryOperator<ClassBuilder> builder) {
+        lock.lock();
+        try {
+            return unchecked(() -> builder.apply(new ClassBuilder(host.getName() + "$$" + name + "$" + HIDDEN_CLASSES.incrementAndGet())).createHidden(host));
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public static class ClassBuilder {
 
         final CtClass ctClass;
@@ -113,6 +128,21 @@ public class Javassist {
             return this;
         }
 
+        /**
+         * adds a public method whose bytecode is written directly, bypassing the compiler and its access checks.
+         */
+        public ClassBuilder addMethod(String name, String descriptor, Consumer<Bytecode> body) {
+            ConstPool constPool = ctClass.getClassFile().getConstPool();
+            MethodInfo methodInfo = new MethodInfo(constPool, name, descriptor);
+            methodInfo.setAccessFlags(AccessFlag.PUBLIC);
+            Bytecode bytecode = new Bytecode(constPool);
+            body.accept(bytecode);
+            bytecode.setMaxLocals(Descriptor.paramSize(descriptor) + 1);
+            methodInfo.setCodeAttribute(bytecode.toCodeAttribute());
+            unchecked(() -> ctClass.getClassFile().addMethod(methodInfo));
+            return this;
+        }
+
         public ClassBuilder addConstructor(String source) {
             return addConstructor(source, UnaryOperator.identity());
         }
@@ -125,6 +155,16 @@ public class Javassist {
             return this;
         }
 
+        private <T> Class<T> createHidden(Class<?> host) throws CannotCompileException, IOException, IllegalAccessException {
+            try {
+                return (Class<T>) MethodHandles.privateLookupIn(host, MethodHandles.lookup())
+                    .defineHiddenClass(ctClass.toBytecode(), true, MethodHandles.Lookup.ClassOption.NESTMATE)
+                    .lookupClass();
+            } finally {
+                ctClass.detach();
+            }
+        }
+
         private <T> Class<T> create(Class<?> neighbor) throws CannotCompileException {
             if (!annotations.isEmpty()) {
                 ctClass.getClassFile().addAttribute(toAnnotationsAttribute(ctClass.getClassFile().getConstPool(), annotations));
@@ -0,0 +1,107 @@
+package io.semla.util.concurrent;
+
+import io.semla.util.Unchecked;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A fixed number of threads in front of a bounded queue. Once the queue is full, submitting blocks the caller until a slot frees
+ * up, so producers are slowed down to the pace of the workers instead of piling up tasks or threads. Tasks submitted from one of
+ * the workers run directly in the worker, so that it never waits on a task queued behind it. Once shutdown, the callers still
+ * waiting for a slot are rejected.
+ */
+public class BoundedExecutorService extends ThreadPoolExecutor {
+
+    private static final long SHUTDOWN_CHECK_INTERVAL = 100;
+
+    private final String name;
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    // one per running or queued task, the queue can hold them all so that it never rejects a task that got a slot
+    private final Semaphore slots;
+
+    public BoundedExecutorService(String name, int threads, int queueSize) {
+        super(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(threads + queueSize));
+        this.name = name;
+        this.slots = new Semaphore(threads + queueSize);
+        allowCoreThreadTimeOut(true);
+        AtomicInteger counter = new AtomicInteger();
+        setThreadFactory(runnable -> {
+            Thread thread = new Thread(() -> {
+                workers.add(Thread.currentThread());
+                try {
+                    runnable.run();
+                } finally {
+                    workers.remove(Thread.currentThread());
+                }
+            }, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (ownsCurrentThread()) {
+            // a worker waiting on a queued task could wait forever
+            command.run();
+        } else {
+            acquireSlot();
+            try {
+                super.execute(new Slotted(command));
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                throw e;
+            }
+        }
+    }
+
+    private void acquireSlot() {
+        try {
+            while (!slots.tryAcquire(SHUTDOWN_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (isShutdown()) {
+                    throw new RejectedExecutionException(name + " is shutdown");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Unchecked.rethrow(e);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> dropped = super.shutdownNow();
+        // those will never run to release their slots
+        slots.release(dropped.size());
+        return dropped.stream().map(runnable -> runnable instanceof Slotted slotted ? slotted.command : runnable).collect(Collectors.toList());
+    }
+
+    /**
+     * @return true if the current thread is one of the workers of this executor.
+     */
+    public boolean ownsCurrentThread() {
+        return workers.contains(Thread.currentThread());
+    }
+
+    private class Slotted implements Runnable {
+
+        private final Runnable command;
+
+        private Slotted(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            try {
+                command.run();
+            } finally {
+                slots.release();
+            }
+        }
+    }
+}
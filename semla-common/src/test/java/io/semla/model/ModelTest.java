@@ -3,6 +3,11 @@ package io.semla.model;
 import io.semla.exception.SemlaException;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class ModelTest {
@@ -22,6 +27,17 @@ public class ModelTest {
         assertThatThrownBy(() -> Model.of(Integer.class).newInstance())
             .isInstanceOf(SemlaException.class)
             .hasMessage("couldn't create a new instance of class java.lang.Integer");
+        assertThatThrownBy(() -> Model.of(Failing.class).newInstance())
+            .isInstanceOf(SemlaException.class)
+            .hasMessage("couldn't create a new instance of class io.semla.model.ModelTest$Failing")
+            .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    public static class Failing {
+
+        public Failing() {
+            throw new IllegalStateException("failing");
+        }
     }
 
     @Test
@@ -30,4 +46,41 @@ public class ModelTest {
             .isInstanceOf(SemlaException.class)
             .hasMessage("could not find any class known by the name 'unknown'");
     }
+
+    @Test
+    public void concurrentWarmUp() throws Exception {
+        List<Class<?>> classes = List.of(Score.class, Parent.class, Child.class, Sibbling.class);
+        int threads = 64;
+        for (int round = 0; round < 10; round++) {
+            Model.clear();
+            ExecutorService executorService = Executors.newFixedThreadPool(threads);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<List<Model<?>>>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    int offset = i;
+                    futures.add(executorService.submit(() -> {
+                        start.await();
+                        List<Model<?>> models = new ArrayList<>();
+                        for (int j = 0; j < classes.size(); j++) {
+                            Class<?> clazz = classes.get((j + offset) % classes.size());
+                            models.add(Model.of(clazz));
+                            assertThat(Model.<Object>getClassBy(clazz.getSimpleName())).isEqualTo(clazz);
+                        }
+                        return models;
+                    }));
+                }
+                start.countDown();
+                List<Model<?>> expected = classes.stream().<Model<?>>map(Model::of).toList();
+                for (Future<List<Model<?>>> future : futures) {
+                    assertThat(future.get(10, TimeUnit.SECONDS))
+                        .isNotNull()
+                        .doesNotContainNull()
+                        .allSatisfy(model -> assertThat(model).isSameAs(expected.get(classes.indexOf(model.getType()))));
+                }
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+    }
 }
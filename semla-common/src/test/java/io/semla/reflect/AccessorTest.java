@@ -0,0 +1,85 @@
+package io.semla.reflect;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccessorTest {
+
+    public static class Bean {
+
+        public int count;
+        public String name;
+        public List<String>[] tags;
+        private long total;
+        private boolean active;
+        private final double ratio = 0.5;
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total * 2;
+        }
+    }
+
+    @Test
+    public void publicFields() {
+        Bean bean = new Bean();
+        Accessor<Bean> count = Accessor.of(Fields.getField(Bean.class, "count"));
+        assertThat(count.getClass().isHidden()).isTrue();
+        count.set(bean, 3);
+        assertThat(count.get(bean)).isEqualTo(3);
+        count.setInt(bean, 4);
+        assertThat(count.getInt(bean)).isEqualTo(4);
+        assertThat(count.getLong(bean)).isEqualTo(4L);
+        count.set(bean, null);
+        assertThat(bean.count).isZero();
+
+        Accessor<Bean> name = Accessor.of(Fields.getField(Bean.class, "name"));
+        name.set(bean, "test");
+        assertThat(name.get(bean)).isEqualTo("test");
+
+        Accessor<Bean> tags = Accessor.of(Fields.getField(Bean.class, "tags"));
+        @SuppressWarnings("unchecked")
+        List<String>[] values = new List[]{List.of("a")};
+        tags.set(bean, values);
+        assertThat(tags.get(bean)).isSameAs(values);
+    }
+
+    @Test
+    public void privateFields() {
+        Bean bean = new Bean();
+        Accessor<Bean> active = Accessor.of(Fields.getField(Bean.class, "active"));
+        assertThat(active.getClass().isHidden()).isTrue();
+        active.setBoolean(bean, true);
+        assertThat(active.getBoolean(bean)).isTrue();
+        assertThat(active.get(bean)).isEqualTo(true);
+        assertThat(bean.active).isTrue();
+    }
+
+    @Test
+    public void gettersAndSetters() {
+        Bean bean = new Bean();
+        Accessor<Bean> total = Accessor.of(
+            Fields.getField(Bean.class, "total"),
+            Methods.getMethod(Bean.class, "getTotal"),
+            Methods.getMethod(Bean.class, "setTotal", long.class)
+        );
+        total.setLong(bean, 2);
+        assertThat(total.getLong(bean)).isEqualTo(4);
+        total.set(bean, 3L);
+        assertThat(total.get(bean)).isEqualTo(6L);
+    }
+
+    @Test
+    public void finalFieldsFallBackToReflection() {
+        Bean bean = new Bean();
+        Accessor<Bean> ratio = Accessor.of(Fields.getField(Bean.class, "ratio"));
+        assertThat(ratio.getClass().isHidden()).isFalse();
+        assertThat(ratio.getDouble(bean)).isEqualTo(0.5);
+    }
+}
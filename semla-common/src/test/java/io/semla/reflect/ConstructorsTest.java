@@ -0,0 +1,37 @@
+package io.semla.reflect;
+
+import org.junit.Test;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConstructorsTest {
+
+    public static class PrivateConstructor {
+
+        private final String value;
+
+        private PrivateConstructor() {
+            value = "created";
+        }
+    }
+
+    public abstract static class AbstractClass {}
+
+    @Test
+    public void privateConstructors() throws ReflectiveOperationException {
+        Supplier<PrivateConstructor> supplier = Constructors.noArgsOf(PrivateConstructor.class);
+        assertThat(supplier.getClass().isHidden()).isTrue();
+        PrivateConstructor first = supplier.get();
+        assertThat(first.value).isEqualTo("created");
+        assertThat(supplier.get()).isNotSameAs(first);
+    }
+
+    @Test
+    public void abstractClassesCannotBeInstantiated() {
+        assertThatThrownBy(() -> Constructors.noArgsOf(AbstractClass.class)).isInstanceOf(InstantiationException.class);
+        assertThatThrownBy(() -> Constructors.noArgsOf(Integer.class)).isInstanceOf(NoSuchMethodException.class);
+    }
+}
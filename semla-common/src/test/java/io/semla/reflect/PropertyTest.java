@@ -92,4 +92,20 @@ public class PropertyTest {
         assertThat(setter.toString()).isEqualTo("io.semla.reflect.PropertyTest.something");
     }
 
+    @Test
+    public void propertiesOfClassesWithoutCanonicalNames() {
+        Object first = new Object() {
+            public String name;
+        };
+        Object second = new Object() {
+            public int value;
+        };
+        assertThat(first.getClass().getCanonicalName()).isNull();
+        assertThat(Properties.membersOf(first.getClass())).containsKey("name").doesNotContainKey("value");
+        assertThat(Properties.membersOf(second.getClass())).containsKey("value").doesNotContainKey("name");
+        assertThat(Properties.settersOf(second.getClass())).containsKey("value").doesNotContainKey("name");
+        assertThat(Properties.gettersOf(first.getClass())).extracting(Property::getName).contains("name").doesNotContain("value");
+        assertThat(Properties.gettersOf(first.getClass())).isSameAs(Properties.gettersOf(first.getClass()));
+    }
+
 }
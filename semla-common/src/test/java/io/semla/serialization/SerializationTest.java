@@ -13,6 +13,8 @@ import io.semla.reflect.Types;
 import io.semla.serialization.annotations.Serialize;
 import io.semla.serialization.annotations.TypeInfo;
 import io.semla.serialization.annotations.TypeName;
+import io.semla.serialization.io.CharacterReader;
+import io.semla.serialization.io.InputStreamReader;
 import io.semla.serialization.io.OutputStreamWriter;
 import io.semla.serialization.json.Json;
 import io.semla.serialization.json.JsonSerializer;
@@ -31,6 +33,8 @@ import org.junit.Test;
 import java.io.*;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -84,6 +88,22 @@ public class SerializationTest {
             .isEqualTo(Lists.of(1, 2, 3, 4, 5));
     }
 
+    @Test
+    public void deserializeMultibyteCharactersFromAStream() {
+        String content = "{\"name\":\"Zoë 日本語 \uD83D\uDE00\",\"values\":[\"ü\",\"€\"]}";
+        Map<String, Object> map = Json.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        assertThat(map).isEqualTo(Maps.of("name", "Zoë 日本語 \uD83D\uDE00", "values", Lists.of("ü", "€")));
+
+        // a tiny window forces the multibyte sequences to be split across reads
+        InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, 3);
+        StringBuilder characters = new StringBuilder();
+        for (char c = reader.next(); c != CharacterReader.EOF; c = reader.next()) {
+            characters.append(c);
+        }
+        assertThat(characters.toString()).isEqualTo(content);
+        assertThat(reader.length()).isEqualTo(content.length());
+    }
+
     @Test
     public void failingStreams() {
         assertThatThrownBy(() -> Json.defaultDeserializer().read(new InputStream() {
@@ -132,7 +152,32 @@ public class SerializationTest {
         outputStreamWriter.append(1f);
         outputStreamWriter.append(1d);
         outputStreamWriter.append("TEST");
+        assertThat(byteArrayOutputStream.size()).isZero();
+        outputStreamWriter.flush();
         assertThat(byteArrayOutputStream.toString()).isEqualTo("truec111.01.0TEST");
+        outputStreamWriter.append(-42).append(Long.MIN_VALUE).append(Long.MAX_VALUE).append('é').append("€\uD83D\uDE00");
+        outputStreamWriter.flush();
+        assertThat(byteArrayOutputStream.toString(StandardCharsets.UTF_8))
+            .isEqualTo("truec111.01.0TEST-42" + Long.MIN_VALUE + Long.MAX_VALUE + "é€\uD83D\uDE00");
+    }
+
+    @Test
+    public void outputStreamWriterFlushesInChunks() {
+        List<Integer> writes = new ArrayList<>();
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writes.add(len);
+                super.write(b, off, len);
+            }
+        };
+        OutputStreamWriter outputStreamWriter = new OutputStreamWriter(byteArrayOutputStream, 32);
+        for (int i = 0; i < 10; i++) {
+            outputStreamWriter.append("0123456789");
+        }
+        outputStreamWriter.flush();
+        assertThat(writes).containsExactly(32, 32, 32, 4);
+        assertThat(byteArrayOutputStream.toString()).isEqualTo("0123456789".repeat(10));
     }
 
     @Test
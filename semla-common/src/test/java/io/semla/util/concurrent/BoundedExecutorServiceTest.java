@@ -0,0 +1,76 @@
+package io.semla.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static io.semla.util.Unchecked.uncheckedRunnable;
+import static io.semla.util.Unchecked.uncheckedSupplier;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedExecutorServiceTest {
+
+    @Test
+    public void concurrencyIsBoundedAndSubmittersWait() {
+        BoundedExecutorService executorService = new BoundedExecutorService("test", 2, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletionStage<Boolean>> stages = IntStream.range(0, 50)
+            .mapToObj(i -> Async.supplyBlocking(uncheckedSupplier(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                TimeUnit.MILLISECONDS.sleep(1);
+                running.decrementAndGet();
+                return true;
+            }), executorService))
+            .toList();
+        assertThat(Async.joinAll(stages)).hasSize(50).allMatch(value -> value);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        assertThat(executorService.getLargestPoolSize()).isEqualTo(2);
+        executorService.shutdown();
+    }
+
+    @Test
+    public void nestedSubmissionsDoNotDeadlock() {
+        BoundedExecutorService executorService = new BoundedExecutorService("test", 1, 1);
+        List<CompletionStage<Integer>> stages = IntStream.range(0, 10)
+            .mapToObj(i -> Async.supplyBlocking(() -> {
+                assertThat(executorService.ownsCurrentThread()).isTrue();
+                return Async.process(List.of(i, i), value -> value * 2, executorService).stream().mapToInt(pair -> pair.first()).sum();
+            }, executorService))
+            .toList();
+        assertThat(Async.joinAll(stages)).containsExactly(0, 4, 8, 12, 16, 20, 24, 28, 32, 36);
+        assertThat(executorService.ownsCurrentThread()).isFalse();
+        executorService.shutdown();
+    }
+
+    @Test
+    public void waitingSubmittersAreRejectedOnShutdown() throws Exception {
+        BoundedExecutorService executorService = new BoundedExecutorService("test", 1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        executorService.execute(uncheckedRunnable(() -> {
+            latch.await();
+            ran.incrementAndGet();
+        }));
+        executorService.execute(ran::incrementAndGet);
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> executorService.execute(ran::incrementAndGet));
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(waiting).isNotDone();
+
+        executorService.shutdown();
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> executorService.execute(ran::incrementAndGet)).isInstanceOf(RejectedExecutionException.class);
+
+        latch.countDown();
+        assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran.get()).isEqualTo(2);
+    }
+}
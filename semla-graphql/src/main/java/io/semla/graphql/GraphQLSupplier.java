@@ -4,6 +4,7 @@ import graphql.GraphQL;
 import graphql.GraphQLContext;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.GraphQLSchema;
+import graphql.schema.SelectedField;
 import graphql.schema.idl.*;
 import io.semla.datasource.Datasource;
 import io.semla.datasource.DatasourceFactory;
@@ -14,6 +15,8 @@ import io.semla.model.Model;
 import io.semla.persistence.EntityManager;
 import io.semla.persistence.EntityManagerFactory;
 import io.semla.persistence.PersistenceContext;
+import io.semla.query.Aggregate;
+import io.semla.query.Aggregation;
 import io.semla.query.Include;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
@@ -128,8 +131,17 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
                 mutations.dataFetcher(Strings.until(mutation, '('), environment -> handler.apply(factory.injector(), environment))
         );
         builder.type(mutations);
-        models.stream().filter(model -> !model.relations().isEmpty()).forEach(model -> {
+        models.forEach(model -> {
             TypeRuntimeWiring.Builder relationWiring = newTypeWiring(model.getType().getSimpleName());
+            relationWiring.dataFetcher("_cursor", environment -> {
+                // the cursor depends on the order of the query the entity was fetched by
+                Pagination<T> pagination = Pagination.of((EntityModel<T>) model);
+                Map<String, String> orderBy = environment.getExecutionStepInfo().getParent().getArgument("orderBy");
+                if (orderBy != null) {
+                    orderBy.forEach((field, sort) -> pagination.orderedBy(field, Pagination.Sort.valueOf(sort.toUpperCase())));
+                }
+                return pagination.cursorOf(environment.getSource());
+            });
             model.relations().stream().map(relation -> (Relation<T, R>) relation)
                     .forEach(relation ->
                             relationWiring.dataFetcher(relation.member().getName(), environment -> {
@@ -157,7 +169,9 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
                 .dataFetcher("list" + capitalize(model.pluralName()), environment ->
                         toSelect(entityManager, environment).list())
                 .dataFetcher("count" + capitalize(model.pluralName()), environment ->
-                        toSelect(entityManager, environment).count());
+                        toSelect(entityManager, environment).count())
+                .dataFetcher("aggregate" + capitalize(model.pluralName()), environment ->
+                        toAggregate(entityManager, environment).list());
     }
 
     protected <K, T> void addMutations(EntityModel<T> model, TypeRuntimeWiring.Builder mutations) {
@@ -199,9 +213,33 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
         if (dataFetchingEnvironment.containsArgument("limitTo")) {
             where.limitTo(dataFetchingEnvironment.<Integer>getArgument("limitTo"));
         }
+        if (dataFetchingEnvironment.containsArgument("after")) {
+            where.afterCursor(dataFetchingEnvironment.<String>getArgument("after"));
+        }
         return where;
     }
 
+    protected <K, T> Aggregate<T> toAggregate(EntityManager<K, T> entityManager, DataFetchingEnvironment dataFetchingEnvironment) {
+        Aggregate<T> aggregate = toSelect(entityManager, dataFetchingEnvironment).aggregate();
+        if (dataFetchingEnvironment.containsArgument("groupBy")) {
+            aggregate.groupBy(dataFetchingEnvironment.<List<String>>getArgument("groupBy").toArray(String[]::new));
+        }
+        // only the selected aggregates are computed, as in "sum { score }"
+        dataFetchingEnvironment.getSelectionSet().getFields().stream()
+                .map(SelectedField::getQualifiedName)
+                .filter(name -> name.contains("/"))
+                .forEach(name -> {
+                    String fieldName = name.substring(name.indexOf('/') + 1);
+                    switch (Aggregation.Function.valueOf(name.substring(0, name.indexOf('/')))) {
+                        case sum -> aggregate.sum(fieldName);
+                        case avg -> aggregate.avg(fieldName);
+                        case min -> aggregate.min(fieldName);
+                        case max -> aggregate.max(fieldName);
+                    }
+                });
+        return aggregate;
+    }
+
     public String getSchema() {
         return getSchema(getCurrentEntityModels());
     }
@@ -214,6 +252,7 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
             addGetManyQuery(model, builder);
             addListQuery(model, builder);
             addCountQuery(model, builder);
+            addAggregateQuery(model, builder);
         });
         additionalQueries.keySet().forEach(query -> builder.append("    ").append(query).append('\n'));
         builder.append("}\n");
@@ -252,6 +291,7 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
             addSortType(model, name, builder);
             addUpdateInputType(model, name, builder);
             addPatchInputType(model, name, builder);
+            addAggregateTypes(model, name, builder);
         });
 
         additionalTypes.forEach(type -> builder.append(type).append("\n"));
@@ -285,7 +325,7 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
         builder.append("    list").append(capitalize(model.pluralName())).append("(")
                 .append("where: _").append(capitalize(model.singularName()))
                 .append("Predicates, orderBy: _").append(capitalize(model.singularName()))
-                .append("Sorts, startAt: Int, limitTo: Int): [").append(model.getType().getSimpleName()).append("!]!\n");
+                .append("Sorts, startAt: Int, limitTo: Int, after: String): [").append(model.getType().getSimpleName()).append("!]!\n");
     }
 
     protected void addCountQuery(EntityModel<?> model, StringBuilder builder) {
@@ -295,6 +335,13 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
                 .append("Sorts, startAt: Int, limitTo: Int): Int!\n");
     }
 
+    protected void addAggregateQuery(EntityModel<?> model, StringBuilder builder) {
+        builder.append("    aggregate").append(capitalize(model.pluralName())).append("(")
+                .append("where: _").append(capitalize(model.singularName()))
+                .append("Predicates, groupBy: [_").append(model.getType().getSimpleName())
+                .append("Field!]): [_").append(model.getType().getSimpleName()).append("Aggregate!]!\n");
+    }
+
     // Mutations
 
     protected void addCreate(EntityModel<?> model, StringBuilder builder) {
@@ -391,6 +438,10 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
                             .append(graphQLType)
                             .append('\n');
                 });
+        if (model instanceof EntityModel) {
+            // to be passed as the after argument of the list queries
+            builder.append("    _cursor: String!\n");
+        }
         builder.append("}\n");
     }
 
@@ -440,6 +491,62 @@ public class GraphQLSupplier implements Supplier<GraphQL> {
         }
     }
 
+    protected <T> void addAggregateTypes(EntityModel<T> model, String name, StringBuilder builder) {
+        builder.append("\nenum _").append(name).append("Field {");
+        builder.append(model.columns().stream().map(column -> column.member().getName()).collect(Collectors.joining(", ")));
+        builder.append("}\n");
+
+        List<Column<T>> numericColumns = model.columns().stream().filter(Aggregation::isNumeric).collect(Collectors.toList());
+        builder.append("\ntype _").append(name).append("Aggregate {\n    ");
+        addAggregatedFields(model, name, builder);
+        builder.append("\n    count: Int!\n");
+        if (!numericColumns.isEmpty()) {
+            builder.append("    sum: _").append(name).append("Sums\n");
+            builder.append("    avg: _").append(name).append("Averages\n");
+        }
+        builder.append("    min: _").append(name).append("Values\n");
+        builder.append("    max: _").append(name).append("Values\n");
+        builder.append("}\n");
+
+        if (!numericColumns.isEmpty()) {
+            builder.append("\ntype _").append(name).append("Sums {\n    ");
+            builder.append(numericColumns.stream()
+                    // sums of ints and longs overflow the 32 bits of an Int, big numbers are exchanged as strings like their columns
+                    .map(column -> column.member().getName() + ": "
+                        + (Types.isAssignableToOneOf(column.member().getType(), BigInteger.class, BigDecimal.class) ? "String" : "Float"))
+                    .collect(Collectors.joining("\n    "))
+            );
+            builder.append("\n}\n");
+            builder.append("\ntype _").append(name).append("Averages {\n    ");
+            builder.append(numericColumns.stream()
+                    .map(column -> column.member().getName() + ": Float")
+                    .collect(Collectors.joining("\n    "))
+            );
+            builder.append("\n}\n");
+        }
+
+        builder.append("\ntype _").append(name).append("Values {\n    ");
+        addAggregatedFields(model, name, builder);
+        builder.append("\n}\n");
+    }
+
+    protected <T> void addAggregatedFields(EntityModel<T> model, String name, StringBuilder builder) {
+        // entities are aggregated by their keys
+        builder.append(model.columns().stream()
+                .map(Column::member)
+                .map(member -> {
+                    String graphQLType = getGraphQLType(member.getGenericType(),
+                            type -> getGraphQLType(EntityModel.of(Types.rawTypeOf(type)).key().member().getType())
+                    );
+                    if (member.getType().getDeclaringClass() != null) {
+                        graphQLType = name + "_" + graphQLType;
+                    }
+                    return member.getName() + ": " + graphQLType;
+                })
+                .collect(Collectors.joining("\n    "))
+        );
+    }
+
     protected void addEnum(Class<?> clazz, String name, StringBuilder builder) {
         builder.append("\nenum ").append(name).append(" {");
         builder.append(Stream.of(clazz.getEnumConstants()).map(String::valueOf).collect(Collectors.joining(", ")));
@@ -106,6 +106,130 @@ Feature: a graphql translation layer for semla
       deleteSomething: true
       """
 
+  Scenario: we can paginate a list with a cursor
+    Given this type:
+      """java
+      @Entity
+      public class Something {
+
+        @Id
+        @GeneratedValue
+        public int id;
+
+        public String name;
+      }
+      """
+    And that we query graphql with:
+      """graphql
+      mutation {
+        createSomethings(somethings: [{name: "tom"}, {name: "bob"}, {name: "lea"}, {name: "bob"}]) {
+          id
+        }
+      }
+      """
+
+    When we query graphql with:
+      """graphql
+      query {
+        listSomethings(orderBy: {name: asc}, limitTo: 2) {
+          id name _cursor
+        }
+      }
+      """
+    Then we receive:
+      """yaml
+      listSomethings:
+        - id: 2
+          name: bob
+          _cursor: WyJib2IiLDJd
+        - id: 4
+          name: bob
+          _cursor: WyJib2IiLDRd
+      """
+
+    When we query graphql with:
+      """graphql
+      query {
+        listSomethings(orderBy: {name: asc}, limitTo: 2, after: "WyJib2IiLDJd") {
+          id name
+        }
+      }
+      """
+    Then we receive:
+      """yaml
+      listSomethings:
+        - id: 4
+          name: bob
+        - id: 3
+          name: lea
+      """
+
+    When we query graphql with:
+      """graphql
+      query {
+        listSomethings(limitTo: 2, after: "WzJd") {
+          id name
+        }
+      }
+      """
+    Then we receive:
+      """yaml
+      listSomethings:
+        - id: 3
+          name: lea
+        - id: 4
+          name: bob
+      """
+
+  Scenario: we can aggregate entities
+    Given this type:
+      """java
+      @Entity
+      public class Something {
+
+        @Id
+        @GeneratedValue
+        public int id;
+
+        public String name;
+
+        public int score;
+      }
+      """
+    And that we query graphql with:
+      """graphql
+      mutation {
+        createSomethings(somethings: [{name: "tom", score: 100}, {name: "bob", score: 200}, {name: "lea", score: 300}, {name: "bob", score: 400}]) {
+          id
+        }
+      }
+      """
+
+    When we query graphql with:
+      """graphql
+      query {
+        aggregateSomethings(where: {score: {greaterThan: 100}}, groupBy: [name]) {
+          name count sum { score } max { id }
+        }
+      }
+      """
+    Then we receive:
+      """yaml
+      aggregateSomethings:
+        - name: bob
+          count: 2
+          sum:
+            score: 600.0
+          max:
+            id: 4
+        - name: lea
+          count: 1
+          sum:
+            score: 300.0
+          max:
+            id: 3
+      """
+
   Scenario: bi-directional onetomany relationship
     Given those types:
       """java
@@ -12,8 +12,9 @@ Feature: semla graphql generated schemas from entities
           getUser(id: Int!): User
           firstUser(where: _UserPredicates, orderBy: _UserSorts, startAt: Int): User
           getUsers(ids: [Int!]!): [User!]!
-          listUsers(where: _UserPredicates, orderBy: _UserSorts, startAt: Int, limitTo: Int): [User!]!
+          listUsers(where: _UserPredicates, orderBy: _UserSorts, startAt: Int, limitTo: Int, after: String): [User!]!
           countUsers(where: _UserPredicates, orderBy: _UserSorts, startAt: Int, limitTo: Int): Int!
+          aggregateUsers(where: _UserPredicates, groupBy: [_UserField!]): [_UserAggregate!]!
       }
 
       type Mutation {
@@ -53,6 +54,7 @@ Feature: semla graphql generated schemas from entities
           type: User_Type
           eyecolor: User_EyeColor
           version: Int
+          _cursor: String!
       }
 
       enum User_Type {admin, user}
@@ -197,6 +199,95 @@ Feature: semla graphql generated schemas from entities
           eyecolor: User_EyeColor
       }
 
+      enum _UserField {id, created, name, additionalNames, isCool, initial, mask, powers, age, percentage, height, birthdate, lastSeen, lastLogin, sqlDate, sqlTime, sqlTimestamp, bigInteger, bigDecimal, calendar, instant, localDateTime, nickname, type, eyecolor, version}
+
+      type _UserAggregate {
+          id: Int
+          created: Int
+          name: String
+          additionalNames: [String!]
+          isCool: Boolean
+          initial: String
+          mask: Int
+          powers: [Int!]
+          age: Int
+          percentage: Float
+          height: Float
+          birthdate: String
+          lastSeen: String
+          lastLogin: String
+          sqlDate: String
+          sqlTime: String
+          sqlTimestamp: String
+          bigInteger: String
+          bigDecimal: String
+          calendar: String
+          instant: String
+          localDateTime: String
+          nickname: String
+          type: User_Type
+          eyecolor: User_EyeColor
+          version: Int
+          count: Int!
+          sum: _UserSums
+          avg: _UserAverages
+          min: _UserValues
+          max: _UserValues
+      }
+
+      type _UserSums {
+          id: Float
+          created: Float
+          mask: Float
+          age: Float
+          percentage: Float
+          height: Float
+          bigInteger: String
+          bigDecimal: String
+          version: Float
+      }
+
+      type _UserAverages {
+          id: Float
+          created: Float
+          mask: Float
+          age: Float
+          percentage: Float
+          height: Float
+          bigInteger: Float
+          bigDecimal: Float
+          version: Float
+      }
+
+      type _UserValues {
+          id: Int
+          created: Int
+          name: String
+          additionalNames: [String!]
+          isCool: Boolean
+          initial: String
+          mask: Int
+          powers: [Int!]
+          age: Int
+          percentage: Float
+          height: Float
+          birthdate: String
+          lastSeen: String
+          lastLogin: String
+          sqlDate: String
+          sqlTime: String
+          sqlTimestamp: String
+          bigInteger: String
+          bigDecimal: String
+          calendar: String
+          instant: String
+          localDateTime: String
+          nickname: String
+          type: User_Type
+          eyecolor: User_EyeColor
+          version: Int
+      }
+
       input _IntPredicates {
           is: Int
           not: Int
@@ -262,8 +353,9 @@ Feature: semla graphql generated schemas from entities
           getSomething(id: Int!): Something
           firstSomething(where: _SomethingPredicates, orderBy: _SomethingSorts, startAt: Int): Something
           getSomethings(ids: [Int!]!): [Something!]!
-          listSomethings(where: _SomethingPredicates, orderBy: _SomethingSorts, startAt: Int, limitTo: Int): [Something!]!
+          listSomethings(where: _SomethingPredicates, orderBy: _SomethingSorts, startAt: Int, limitTo: Int, after: String): [Something!]!
           countSomethings(where: _SomethingPredicates, orderBy: _SomethingSorts, startAt: Int, limitTo: Int): Int!
+          aggregateSomethings(where: _SomethingPredicates, groupBy: [_SomethingField!]): [_SomethingAggregate!]!
       }
 
       type Mutation {
@@ -279,6 +371,7 @@ Feature: semla graphql generated schemas from entities
       type Something {
           id: Int!
           name: String
+          _cursor: String!
       }
 
       input _SomethingCreate {
@@ -304,6 +397,31 @@ Feature: semla graphql generated schemas from entities
           name: String
       }
 
+      enum _SomethingField {id, name}
+
+      type _SomethingAggregate {
+          id: Int
+          name: String
+          count: Int!
+          sum: _SomethingSums
+          avg: _SomethingAverages
+          min: _SomethingValues
+          max: _SomethingValues
+      }
+
+      type _SomethingSums {
+          id: Float
+      }
+
+      type _SomethingAverages {
+          id: Float
+      }
+
+      type _SomethingValues {
+          id: Int
+          name: String
+      }
+
       input _IntPredicates {
           is: Int
           not: Int
@@ -380,13 +498,15 @@ Feature: semla graphql generated schemas from entities
           getChild(id: Int!): Child
           firstChild(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int): Child
           getChildren(ids: [Int!]!): [Child!]!
-          listChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int): [Child!]!
+          listChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int, after: String): [Child!]!
           countChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int): Int!
+          aggregateChildren(where: _ChildPredicates, groupBy: [_ChildField!]): [_ChildAggregate!]!
           getParent(id: Int!): Parent
           firstParent(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int): Parent
           getParents(ids: [Int!]!): [Parent!]!
-          listParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int): [Parent!]!
+          listParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int, after: String): [Parent!]!
           countParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int): Int!
+          aggregateParents(where: _ParentPredicates, groupBy: [_ParentField!]): [_ParentAggregate!]!
       }
 
       type Mutation {
@@ -406,6 +526,7 @@ Feature: semla graphql generated schemas from entities
       type Child {
           id: Int!
           parent: Parent
+          _cursor: String!
       }
 
       input _ChildCreate {
@@ -432,9 +553,35 @@ Feature: semla graphql generated schemas from entities
           parent: Int
       }
 
+      enum _ChildField {id, parent}
+
+      type _ChildAggregate {
+          id: Int
+          parent: Int
+          count: Int!
+          sum: _ChildSums
+          avg: _ChildAverages
+          min: _ChildValues
+          max: _ChildValues
+      }
+
+      type _ChildSums {
+          id: Float
+      }
+
+      type _ChildAverages {
+          id: Float
+      }
+
+      type _ChildValues {
+          id: Int
+          parent: Int
+      }
+
       type Parent {
           id: Int!
           children: [Child!]
+          _cursor: String!
       }
 
       input _ParentCreate {
@@ -449,6 +596,29 @@ Feature: semla graphql generated schemas from entities
           id: _Sort
       }
 
+      enum _ParentField {id}
+
+      type _ParentAggregate {
+          id: Int
+          count: Int!
+          sum: _ParentSums
+          avg: _ParentAverages
+          min: _ParentValues
+          max: _ParentValues
+      }
+
+      type _ParentSums {
+          id: Float
+      }
+
+      type _ParentAverages {
+          id: Float
+      }
+
+      type _ParentValues {
+          id: Int
+      }
+
       input _IntPredicates {
           is: Int
           not: Int
@@ -532,13 +702,15 @@ Feature: semla graphql generated schemas from entities
           getChild(id: Int!): Child
           firstChild(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int): Child
           getChildren(ids: [Int!]!): [Child!]!
-          listChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int): [Child!]!
+          listChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int, after: String): [Child!]!
           countChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int): Int!
+          aggregateChildren(where: _ChildPredicates, groupBy: [_ChildField!]): [_ChildAggregate!]!
           getParent(id: Int!): Parent
           firstParent(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int): Parent
           getParents(ids: [Int!]!): [Parent!]!
-          listParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int): [Parent!]!
+          listParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int, after: String): [Parent!]!
           countParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int): Int!
+          aggregateParents(where: _ParentPredicates, groupBy: [_ParentField!]): [_ParentAggregate!]!
       }
 
       type Mutation {
@@ -562,6 +734,7 @@ Feature: semla graphql generated schemas from entities
           id: Int!
           name: String
           parent: Parent
+          _cursor: String!
       }
 
       input _ChildCreate {
@@ -592,10 +765,38 @@ Feature: semla graphql generated schemas from entities
           parent: _ParentUpdate
       }
 
+      enum _ChildField {id, name, parent}
+
+      type _ChildAggregate {
+          id: Int
+          name: String
+          parent: Int
+          count: Int!
+          sum: _ChildSums
+          avg: _ChildAverages
+          min: _ChildValues
+          max: _ChildValues
+      }
+
+      type _ChildSums {
+          id: Float
+      }
+
+      type _ChildAverages {
+          id: Float
+      }
+
+      type _ChildValues {
+          id: Int
+          name: String
+          parent: Int
+      }
+
       type Parent {
           id: Int!
           name: String
           children: [Child!]
+          _cursor: String!
       }
 
       input _ParentCreate {
@@ -622,6 +823,31 @@ Feature: semla graphql generated schemas from entities
           name: String
       }
 
+      enum _ParentField {id, name}
+
+      type _ParentAggregate {
+          id: Int
+          name: String
+          count: Int!
+          sum: _ParentSums
+          avg: _ParentAverages
+          min: _ParentValues
+          max: _ParentValues
+      }
+
+      type _ParentSums {
+          id: Float
+      }
+
+      type _ParentAverages {
+          id: Float
+      }
+
+      type _ParentValues {
+          id: Int
+          name: String
+      }
+
       input _IntPredicates {
           is: Int
           not: Int
@@ -699,18 +925,21 @@ Feature: semla graphql generated schemas from entities
           getChild(id: Int!): Child
           firstChild(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int): Child
           getChildren(ids: [Int!]!): [Child!]!
-          listChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int): [Child!]!
+          listChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int, after: String): [Child!]!
           countChildren(where: _ChildPredicates, orderBy: _ChildSorts, startAt: Int, limitTo: Int): Int!
+          aggregateChildren(where: _ChildPredicates, groupBy: [_ChildField!]): [_ChildAggregate!]!
           getParent(id: Int!): Parent
           firstParent(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int): Parent
           getParents(ids: [Int!]!): [Parent!]!
-          listParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int): [Parent!]!
+          listParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int, after: String): [Parent!]!
           countParents(where: _ParentPredicates, orderBy: _ParentSorts, startAt: Int, limitTo: Int): Int!
+          aggregateParents(where: _ParentPredicates, groupBy: [_ParentField!]): [_ParentAggregate!]!
           getParentChild(id: Int!): ParentChild
           firstParentChild(where: _ParentChildPredicates, orderBy: _ParentChildSorts, startAt: Int): ParentChild
           getParentChildren(ids: [Int!]!): [ParentChild!]!
-          listParentChildren(where: _ParentChildPredicates, orderBy: _ParentChildSorts, startAt: Int, limitTo: Int): [ParentChild!]!
+          listParentChildren(where: _ParentChildPredicates, orderBy: _ParentChildSorts, startAt: Int, limitTo: Int, after: String): [ParentChild!]!
           countParentChildren(where: _ParentChildPredicates, orderBy: _ParentChildSorts, startAt: Int, limitTo: Int): Int!
+          aggregateParentChildren(where: _ParentChildPredicates, groupBy: [_ParentChildField!]): [_ParentChildAggregate!]!
       }
 
       type Mutation {
@@ -734,6 +963,7 @@ Feature: semla graphql generated schemas from entities
       type Child {
           id: Int!
           parents: [Parent!]
+          _cursor: String!
       }
 
       input _ChildCreate {
@@ -748,9 +978,33 @@ Feature: semla graphql generated schemas from entities
           id: _Sort
       }
 
+      enum _ChildField {id}
+
+      type _ChildAggregate {
+          id: Int
+          count: Int!
+          sum: _ChildSums
+          avg: _ChildAverages
+          min: _ChildValues
+          max: _ChildValues
+      }
+
+      type _ChildSums {
+          id: Float
+      }
+
+      type _ChildAverages {
+          id: Float
+      }
+
+      type _ChildValues {
+          id: Int
+      }
+
       type Parent {
           id: Int!
           children: [Child!]
+          _cursor: String!
       }
 
       input _ParentCreate {
@@ -765,10 +1019,34 @@ Feature: semla graphql generated schemas from entities
           id: _Sort
       }
 
+      enum _ParentField {id}
+
+      type _ParentAggregate {
+          id: Int
+          count: Int!
+          sum: _ParentSums
+          avg: _ParentAverages
+          min: _ParentValues
+          max: _ParentValues
+      }
+
+      type _ParentSums {
+          id: Float
+      }
+
+      type _ParentAverages {
+          id: Float
+      }
+
+      type _ParentValues {
+          id: Int
+      }
+
       type ParentChild {
           id: Int!
           parent: Parent
           child: Child
+          _cursor: String!
       }
 
       input _ParentChildCreate {
@@ -799,6 +1077,33 @@ Feature: semla graphql generated schemas from entities
           child: Int
       }
 
+      enum _ParentChildField {id, parent, child}
+
+      type _ParentChildAggregate {
+          id: Int
+          parent: Int
+          child: Int
+          count: Int!
+          sum: _ParentChildSums
+          avg: _ParentChildAverages
+          min: _ParentChildValues
+          max: _ParentChildValues
+      }
+
+      type _ParentChildSums {
+          id: Float
+      }
+
+      type _ParentChildAverages {
+          id: Float
+      }
+
+      type _ParentChildValues {
+          id: Int
+          parent: Int
+          child: Int
+      }
+
       input _IntPredicates {
           is: Int
           not: Int
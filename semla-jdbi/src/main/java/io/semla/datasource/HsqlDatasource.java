@@ -1,5 +1,6 @@
 package io.semla.datasource;
 
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
@@ -9,6 +10,7 @@ import org.jdbi.v3.core.h2.H2DatabasePlugin;
 
 import javax.persistence.Embedded;
 import javax.persistence.GeneratedValue;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -36,6 +38,18 @@ public class HsqlDatasource<T> extends SqlDatasource<T> {
             .withColumnDefinition(column -> column.member().annotation(Embedded.class).isPresent(), "CLOB")
             .withColumnDefinition(column -> column.member().getType().equals(UUID.class), "VARCHAR(36)");
 
+        ddl().upsertWith(ddl -> {
+            List<Column<T>> inserted = model().columns().stream().filter(Column::insertable).collect(Collectors.toList());
+            String updates = ddl.upsertableColumns().stream()
+                .map(column -> ddl.escape(column.name()) + " = :" + column.name())
+                .collect(Collectors.joining(", "));
+            return "MERGE INTO " + ddl.escape(ddl.tablename()) + " USING (VALUES(1)) ON "
+                + ddl.escape(model().key().name()) + " = :" + model().key().name()
+                + (updates.isEmpty() ? "" : " WHEN MATCHED THEN UPDATE SET " + updates)
+                + " WHEN NOT MATCHED THEN INSERT (" + inserted.stream().map(column -> ddl.escape(column.name())).collect(Collectors.joining(", "))
+                + ") VALUES (" + inserted.stream().map(column -> ":" + column.name()).collect(Collectors.joining(", ")) + ")";
+        });
+
         model().indices().forEach(index -> {
                 if (index.isPrimary()) {
                     ddl().withConstraint("PRIMARY KEY (" + index.columnNames(ddl().escape()) + ")");
@@ -49,6 +63,18 @@ public class HsqlDatasource<T> extends SqlDatasource<T> {
         );
     }
 
+    @Override
+    protected boolean supportsRowValueComparison() {
+        // Hsql cannot infer the types of the parameters of a row value
+        return false;
+    }
+
+    @Override
+    protected boolean returnsUpdatedRows() {
+        // Hsql returns the generated keys of the updated rows only
+        return true;
+    }
+
     @Override
     public long delete(Predicates<T> predicates, Pagination<T> pagination) {
         if (pagination.isSorted() || pagination.isPaginated()) {
@@ -31,6 +31,8 @@ public class SqlDDL<T> {
     private final String tablename;
     private final Singleton<String> insert;
     private final Singleton<String> update;
+    private final Singleton<Optional<String>> upsert;
+    private Function<SqlDDL<T>, String> upsertGenerator = ddl -> null;
     private final List<String> commands = new ArrayList<>();
     private Function<String, String> escape = name -> "\"" + name + "\"";
 
@@ -39,6 +41,7 @@ public class SqlDDL<T> {
         this.tablename = tablename;
         this.insert = lazy(this::generateInsertQuery);
         this.update = lazy(this::generateUpdateQuery);
+        this.upsert = lazy(() -> Optional.ofNullable(upsertGenerator.apply(this)));
         model.columns().forEach(column ->
             getColumnDefinition(column).ifPresent(columnDefinition -> columnDefinitions.put(column, columnDefinition))
         );
@@ -46,7 +49,7 @@ public class SqlDDL<T> {
 
     public SqlDDL<T> escapeWith(Function<String, String> escape) {
         this.escape = escape;
-        Singleton.resetAll(insert, update);
+        Singleton.resetAll(insert, update, upsert);
         return this;
     }
 
@@ -100,6 +103,28 @@ public class SqlDDL<T> {
         return update.toString();
     }
 
+    /**
+     * @return the vendor specific statement inserting a row or updating it if its key already exists, with the same bindings as
+     * {@link #insert()}, if any.
+     */
+    public Optional<String> upsert() {
+        return upsert.get();
+    }
+
+    public SqlDDL<T> upsertWith(Function<SqlDDL<T>, String> upsertGenerator) {
+        this.upsertGenerator = upsertGenerator;
+        upsert.reset();
+        return this;
+    }
+
+    /**
+     * @return the columns an upsert writes over an existing row, all the inserted ones that can be updated, but the key.
+     */
+    public List<Column<T>> upsertableColumns() {
+        return model.columns().stream()
+            .filter(column -> column.insertable() && column.updatable() && !column.equals(model.key()))
+            .collect(Collectors.toList());
+    }
 
     public List<String> create() {
         StringBuilder ddl = new StringBuilder("CREATE TABLE ").append(escape(tablename)).append(" (").append(lineSeparator());
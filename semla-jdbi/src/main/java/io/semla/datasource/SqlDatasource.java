@@ -4,10 +4,13 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import io.semla.model.Column;
 import io.semla.model.EntityModel;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
 import io.semla.query.Predicate;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
+import io.semla.reflect.Accessor;
+import io.semla.reflect.Member;
 import io.semla.reflect.Methods;
 import io.semla.reflect.Properties;
 import io.semla.reflect.Setter;
@@ -17,10 +20,13 @@ import io.semla.serialization.annotations.When;
 import io.semla.serialization.json.Json;
 import io.semla.util.Arrays;
 import io.semla.util.*;
+import io.semla.util.concurrent.Async;
+import io.semla.util.concurrent.BoundedExecutorService;
 import io.semla.util.function.PentaConsumer;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.config.JdbiConfig;
+import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.statement.*;
 
 import javax.persistence.*;
@@ -32,7 +38,10 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -44,8 +53,8 @@ import static io.semla.util.Unchecked.unchecked;
 
 public abstract class SqlDatasource<T> extends Datasource<T> {
 
-    private static final Map<Class<?>, Throwables.BiFunction<ResultSet, String, ?>> PRIMITIVE_READERS =
-        ImmutableMap.<Class<?>, Throwables.BiFunction<ResultSet, String, ?>>builder()
+    private static final Map<Class<?>, Throwables.BiFunction<ResultSet, Integer, ?>> PRIMITIVE_READERS =
+        ImmutableMap.<Class<?>, Throwables.BiFunction<ResultSet, Integer, ?>>builder()
             .put(byte.class, ResultSet::getByte)
             .put(short.class, ResultSet::getShort)
             .put(int.class, ResultSet::getInt)
@@ -55,17 +64,30 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
             .put(boolean.class, ResultSet::getBoolean)
             .build();
 
+    private static final int MAX_TEMPLATES = 1024;
+    private static final String CREATE_SAVEPOINT = "semla_create";
     private static final Calendar UTC = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
     private static final Calendar defaultCalendar = Calendar.getInstance(TimeZone.getDefault());
 
-    private final Map<Column<T>, Throwables.Function<ResultSet, ?>> mappers = new LinkedHashMap<>();
+    private final Map<Column<T>, Throwables.BiFunction<ResultSet, Integer, ?>> mappers = new LinkedHashMap<>();
+    private final Map<Column<T>, ColumnReader<T>> columnReaders = new LinkedHashMap<>();
+    private final RowMapper<T> rowMapper = new EntityRowMapper(columnReaders.keySet());
     private final Map<Column<T>, Function<Object, Object>> binders = new LinkedHashMap<>();
+    // rendered statements by shape, empty when the handlers of that shape cannot be replayed, the least recently used go first
+    private final Map<List<Object>, Optional<StatementTemplate>> templates = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Optional<StatementTemplate>> eldest) {
+            return size() > MAX_TEMPLATES;
+        }
+    });
     private final Map<Predicate, PentaConsumer<StringBuilder, Column<T>, Predicate, Object, Map<String, Object>>> predicateHandlers = new EnumMap<>(Predicate.class);
     private final String[] generatedColumns;
     private final Jdbi dbi;
     private final SqlDDL<T> ddl;
 
     private int maxChunkSize = 1000;
+    private int maxInListSize = 1000;
+    private int fetchSize = 1000;
 
     public SqlDatasource(EntityModel<T> entityModel, Jdbi dbi, String tablename) {
         super(entityModel);
@@ -82,10 +104,10 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         model().columns().forEach(column -> {
             Class<?> type = column.member().getType();
             if (type.isArray() && !isAssignableTo(type.getComponentType(), Byte.class)) {
-                mappers.put(column, resultSet -> Json.read(resultSet.getString(column.name()), column.member().getGenericType()));
+                mappers.put(column, (resultSet, index) -> Json.read(resultSet.getString(index), column.member().getGenericType()));
                 binders.put(column, Json::write);
             } else if (column.member().annotation(Embedded.class).isPresent()) {
-                mappers.put(column, resultSet -> Json.read(resultSet.getString(column.name()), column.member().getGenericType()));
+                mappers.put(column, (resultSet, index) -> Json.read(resultSet.getString(index), column.member().getGenericType()));
                 binders.put(column, value -> {
                     if (column.member().isAnnotatedWithOneOf(Arrays.of(OneToMany.class, ManyToMany.class))) {
                         value = ((Collection<?>) value).stream().map(EntityModel::keyOf).collect(Collectors.toList());
@@ -93,59 +115,62 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
                     return Json.write(value);
                 });
             } else if (isEntity(type)) {
-                mappers.put(column, resultSet -> {
+                mappers.put(column, (resultSet, index) -> {
                         Class<?> keyType = EntityModel.of(type).key().member().getType();
                         Object keyValue;
                         if (keyType.isPrimitive()) {
-                            keyValue = PRIMITIVE_READERS.get(keyType).apply(resultSet, column.name());
+                            keyValue = PRIMITIVE_READERS.get(keyType).apply(resultSet, index);
                         } else {
-                            keyValue = resultSet.getObject(column.name(), keyType);
+                            keyValue = resultSet.getObject(index, keyType);
                         }
                         return keyValue != null ? EntityModel.referenceTo(type, keyValue) : null;
                     }
                 );
                 binders.put(column, EntityModel::keyOf);
             } else if (type.equals(Optional.class)) {
-                mappers.put(column, resultSet -> Optional.of(resultSet.getObject(column.name(), rawTypeArgumentOf(column.member().getGenericType()))));
+                mappers.put(column, (resultSet, index) -> Optional.of(resultSet.getObject(index, rawTypeArgumentOf(column.member().getGenericType()))));
                 binders.put(column, value -> ((Optional<?>) value).orElse(null));
             } else if (type.equals(BigInteger.class)) {
-                mappers.put(column, resultSet -> BigInteger.valueOf(resultSet.getLong(column.name())));
+                mappers.put(column, (resultSet, index) -> BigInteger.valueOf(resultSet.getLong(index)));
                 binders.put(column, value -> ((BigInteger) value).longValue());
             } else if (type.equals(BigDecimal.class)) {
-                mappers.put(column, resultSet -> resultSet.getBigDecimal(column.name()).stripTrailingZeros());
+                mappers.put(column, (resultSet, index) -> resultSet.getBigDecimal(index).stripTrailingZeros());
             } else if (isAssignableTo(type, Calendar.class)) {
-                mappers.put(column, resultSet -> getTemporal(column, resultSet, time -> {
+                mappers.put(column, (resultSet, index) -> getTemporal(column, resultSet, index, time -> {
                     Calendar calendar = Calendar.getInstance();
                     calendar.setTimeInMillis(time);
                     return calendar;
                 }));
                 binders.put(column, value -> new Date(((Calendar) value).getTimeInMillis()));
             } else if (isAssignableTo(type, Character.class)) {
-                mappers.put(column, resultSet -> {
-                    String value = resultSet.getString(column.name());
+                mappers.put(column, (resultSet, index) -> {
+                    String value = resultSet.getString(index);
                     return value != null ? value.charAt(0) : null;
                 });
             } else if (type.isPrimitive()) {
-                mappers.put(column, resultSet -> PRIMITIVE_READERS.get(type).apply(resultSet, column.name()));
+                mappers.put(column, (resultSet, index) -> PRIMITIVE_READERS.get(type).apply(resultSet, index));
             } else if (type.equals(Date.class)) {
-                mappers.put(column, resultSet -> getTemporal(column, resultSet, Date::new));
+                mappers.put(column, (resultSet, index) -> getTemporal(column, resultSet, index, Date::new));
             } else if (type.equals(Instant.class)) {
-                mappers.put(column, resultSet -> {
-                    Date timestamp = resultSet.getTimestamp(column.name(), defaultCalendar);
+                mappers.put(column, (resultSet, index) -> {
+                    Date timestamp = resultSet.getTimestamp(index, defaultCalendar);
                     return timestamp != null ? Instant.ofEpochMilli(timestamp.getTime()) : null;
                 });
             } else if (type.isEnum()) {
                 if (column.member().annotation(Enumerated.class).filter(enumerated -> enumerated.value() == EnumType.ORDINAL).isPresent()) {
-                    mappers.put(column, resultSet -> type.getEnumConstants()[resultSet.getInt(column.name())]);
+                    mappers.put(column, (resultSet, index) -> type.getEnumConstants()[resultSet.getInt(index)]);
                     binders.put(column, value -> ((Enum<?>) value).ordinal());
                 } else {
-                    mappers.put(column, resultSet -> Methods.invoke(type, "valueOf", resultSet.getString(column.name())));
+                    mappers.put(column, (resultSet, index) -> Methods.invoke(type, "valueOf", resultSet.getString(index)));
                     binders.put(column, value -> ((Enum<?>) value).name());
                 }
             } else if (type.equals(UUID.class)) {
-                mappers.put(column, resultSet -> Optional.of(resultSet.getString(column.name())).map(UUID::fromString).orElse(null));
+                mappers.put(column, (resultSet, index) -> Optional.of(resultSet.getString(index)).map(UUID::fromString).orElse(null));
                 binders.put(column, String::valueOf);
+            } else {
+                mappers.put(column, (resultSet, index) -> resultSet.getObject(index, type));
             }
+            columnReaders.put(column, readerOf(column));
         });
         generatedColumns = model().columns().stream()
             .filter(column -> column.isGenerated() && !column.member().getType().equals(UUID.class))
@@ -170,6 +195,29 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         return (SelfType) this;
     }
 
+    /**
+     * splits the keys given to {@link #get(Collection)} and {@link #delete(Collection)} into IN lists of at most that size,
+     * run concurrently up to the size of the connection pool.
+     */
+    @SuppressWarnings("unchecked")
+    public <SelfType extends SqlDatasource<T>> SelfType withMaxInListSize(int maxInListSize) {
+        this.maxInListSize = maxInListSize;
+        return (SelfType) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <SelfType extends SqlDatasource<T>> SelfType withFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return (SelfType) this;
+    }
+
+    /**
+     * @return the number of rows fetched at once when streaming a result set.
+     */
+    protected int fetchSize() {
+        return fetchSize;
+    }
+
     protected abstract void extend();
 
     @Override
@@ -177,10 +225,41 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         return dbi;
     }
 
+    @Override
+    public ExecutorService executor() {
+        ExecutorService executor = dbi != null ? dbi.getConfig(SemlaJdbiConfig.class).executor : null;
+        return executor != null ? executor : super.executor();
+    }
+
     public SqlDDL<T> ddl() {
         return ddl;
     }
 
+    /**
+     * runs the work on a single handle and in a single transaction, committed once it returns and rolled back if it throws.
+     * Jdbi hands the same handle to all the calls made from this thread on the datasources sharing this jdbi, so their writes
+     * are visible to their reads and only flushed to disk once, at commit.
+     */
+    @Override
+    public <R> R unitOfWork(Supplier<R> work) {
+        if (dbi == null || currentUnitOfWork().isPresent()) {
+            return work.get();
+        }
+        ThreadLocal<Handle> unitOfWork = dbi.getConfig(SemlaJdbiConfig.class).unitOfWork;
+        return dbi.inTransaction(handle -> {
+            unitOfWork.set(handle);
+            try {
+                return work.get();
+            } finally {
+                unitOfWork.remove();
+            }
+        });
+    }
+
+    private Optional<Handle> currentUnitOfWork() {
+        return dbi != null ? Optional.ofNullable(dbi.getConfig(SemlaJdbiConfig.class).unitOfWork.get()) : Optional.empty();
+    }
+
     @Override
     public Optional<T> get(Object key) {
         return first(model().key().is(key), Pagination.of(model().getType()));
@@ -191,8 +270,8 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         if (!keys.isEmpty()) {
             Map<K, T> entitiesByKey = new LinkedHashMap<>();
             keys.forEach(key -> entitiesByKey.put(key, null));
-            list(model().key().in(keys), Pagination.of(model().getType()).limitTo(keys.size()))
-                .forEach(entity -> entitiesByKey.put(model().key().member().getOn(entity), entity));
+            inChunks(keys, chunk -> list(model().key().in(chunk), Pagination.of(model().getType()).limitTo(chunk.size())))
+                .forEach(entities -> entities.forEach(entity -> entitiesByKey.put(model().key().member().getOn(entity), entity)));
             return entitiesByKey;
         } else {
             return new LinkedHashMap<>();
@@ -201,25 +280,63 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
 
     @Override
     public void create(T entity) {
-        dbi.useHandle(handle -> {
-            if (!model().key().member().isDefaultOn(entity)) {
+        // no existence check beforehand, we rely on the primary key constraint instead
+        try {
+            dbi.useHandle(handle -> {
+                if (handle.isInTransaction() && abortsTransactionOnError()) {
+                    // rolling back to a savepoint keeps the transaction usable, to check the key below and for the rest of the unit
+                    // of work
+                    handle.savepoint(CREATE_SAVEPOINT);
+                    try {
+                        insert(handle, entity);
+                    } catch (RuntimeException e) {
+                        handle.rollbackToSavepoint(CREATE_SAVEPOINT);
+                        throw e;
+                    }
+                    handle.release(CREATE_SAVEPOINT);
+                } else {
+                    insert(handle, entity);
+                }
+            });
+        } catch (StatementException e) {
+            if (e.getCause() instanceof SQLException sqlException && isDuplicateKey(sqlException)) {
+                // the violated constraint might be another unique index, only the key is reported as already existing
                 Object key = model().key().member().getOn(entity);
-                get(key).ifPresent(current -> {
+                if (!model().key().member().isDefaultOn(entity) && get(key).isPresent()) {
                     throw alreadyExists(key);
-                });
-            }
-            model().version().ifPresent(version -> version.member().setOn(entity, 1));
-            Update update = bind(handle.createUpdate(ddl().insert()), model().columns().stream().filter(Column::insertable), entity);
-            if (generatedColumns.length > 0) {
-                update.executeAndReturnGeneratedKeys(generatedColumns).mapToMap().findFirst()
-                    .ifPresent(generatedKeys -> assignGeneratedValues(entity, Lists.from(generatedKeys.values())));
-            } else {
-                int inserted = update.execute();
-                if (inserted == 0) {
-                    throw new PersistenceException("couldn't insert " + Json.write(entity));
                 }
             }
-        });
+            throw e;
+        }
+    }
+
+    private void insert(Handle handle, T entity) {
+        model().version().ifPresent(version -> version.member().setOn(entity, 1));
+        Update update = bind(handle.createUpdate(ddl().insert()), model().columns().stream().filter(Column::insertable), entity);
+        if (generatedColumns.length > 0) {
+            update.executeAndReturnGeneratedKeys(generatedColumns).mapToMap().findFirst()
+                .ifPresent(generatedKeys -> assignGeneratedValues(entity, Lists.from(generatedKeys.values())));
+        } else {
+            int inserted = update.execute();
+            if (inserted == 0) {
+                throw new PersistenceException("couldn't insert " + Json.write(entity));
+            }
+        }
+    }
+
+    /**
+     * @return true if a failed statement aborts the whole transaction, in which case each create within one is guarded by a
+     * savepoint. Most databases only roll back the failed statement.
+     */
+    protected boolean abortsTransactionOnError() {
+        return false;
+    }
+
+    /**
+     * @return true if the exception reports a unique constraint violation, SQLState 23505 in the standard.
+     */
+    protected boolean isDuplicateKey(SQLException e) {
+        return "23505".equals(e.getSQLState());
     }
 
     @Override
@@ -241,34 +358,41 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
     public void update(T entity) {
         dbi.useHandle(handle -> {
             Update update = bind(handle.createUpdate(ddl().update()), model().columns().stream().filter(Column::updatable), entity);
-            Object key = binders.getOrDefault(model().key(), Function.identity()).apply(model().key().member().getOn(entity));
+            Object key = keyToBind(entity);
             update.bindByType(model().key().name(), key, key.getClass());
             model().version().ifPresent(version ->
                 update.bindByType(version.name(), version.member().<Integer>getOn(entity), Integer.class)
             );
+            boolean updated;
             if (generatedColumns.length > 0) {
-                update.executeAndReturnGeneratedKeys(generatedColumns).mapToMap().findFirst()
-                    .ifPresent(generatedKeys -> assignGeneratedValues(entity, Lists.from(generatedKeys.values())));
+                Optional<Map<String, Object>> generatedKeys = update.executeAndReturnGeneratedKeys(generatedColumns).mapToMap().findFirst();
+                generatedKeys.ifPresent(values -> assignGeneratedValues(entity, Lists.from(values.values())));
+                updated = generatedKeys.isPresent();
             } else {
-                long updated = update.execute();
-                if (updated == 0) {
-                    if (model().version().isPresent()) {
-                        throw new OptimisticLockException("while updating " + entity);
-                    } else {
-                        throw notFound(key);
-                    }
+                updated = update.execute() > 0;
+            }
+            if (!updated) {
+                if (model().version().isPresent()) {
+                    throw new OptimisticLockException("while updating " + entity);
+                } else {
+                    throw notFound(key);
                 }
             }
         });
     }
 
+    /**
+     * Updates all the entities in one transaction, batching the statements. If any of them wasn't updated, because its version
+     * changed in between or because it doesn't exist, the whole update is rolled back and the exception names all their keys.
+     */
     @Override
     public void update(Collection<T> entities) {
-        Lists.chunk(entities, maxChunkSize).forEach(chunck ->
-            dbi.useHandle(handle -> {
+        dbi.useTransaction(handle -> {
+            List<T> notUpdated = new ArrayList<>();
+            Lists.chunk(entities, maxChunkSize).forEach(chunck -> {
                 PreparedBatch preparedBatch = handle.prepareBatch(ddl().update());
                 chunck.forEach(entity -> {
-                    Object key = binders.getOrDefault(model().key(), Function.identity()).apply(model().key().member().getOn(entity));
+                    Object key = keyToBind(entity);
                     bind(preparedBatch, model().columns().stream().filter(Column::updatable), entity)
                         .bindByType(model().key().name(), key, key.getClass());
                     model().version().ifPresent(version ->
@@ -276,11 +400,87 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
                     );
                     preparedBatch.add();
                 });
+                if (returnsUpdatedRows()) {
+                    notUpdated.addAll(executeReturningUpdatedRows(preparedBatch, chunck));
+                } else {
+                    int[] updated = preparedBatch.execute();
+                    for (int i = 0; i < updated.length; i++) {
+                        // drivers can also answer SUCCESS_NO_INFO, which we cannot check
+                        if (updated[i] == 0) {
+                            notUpdated.add(chunck.get(i));
+                        }
+                    }
+                }
+            });
+            if (!notUpdated.isEmpty()) {
+                throw notUpdated(notUpdated);
+            }
+        });
+    }
+
+    /**
+     * @return true if the driver can return the generated columns of a batch of updates, only for the updated rows.
+     */
+    protected boolean returnsUpdatedRows() {
+        return false;
+    }
+
+    /**
+     * runs the batch returning the key and the generated columns of the updated rows, assigns the generated values and
+     * returns the entities that weren't updated.
+     */
+    private List<T> executeReturningUpdatedRows(PreparedBatch preparedBatch, List<T> chunck) {
+        String[] columns = generatedColumns;
+        int keyIndex = List.of(generatedColumns).indexOf(model().key().name());
+        if (keyIndex < 0) {
+            keyIndex = columns.length;
+            columns = Arrays.concat(generatedColumns, Arrays.of(model().key().name()));
+        }
+        Map<String, List<Object>> updatedRows = new HashMap<>();
+        int index = keyIndex;
+        preparedBatch.executeAndReturnGeneratedKeys(columns).mapToMap().forEach(row -> {
+            List<Object> values = Lists.from(row.values());
+            updatedRows.put(String.valueOf(values.get(index)), values.subList(0, generatedColumns.length));
+        });
+        List<T> notUpdated = new ArrayList<>();
+        chunck.forEach(entity -> {
+            List<Object> generatedValues = updatedRows.get(String.valueOf(keyToBind(entity)));
+            if (generatedValues == null) {
+                notUpdated.add(entity);
+            } else if (!generatedValues.isEmpty()) {
+                assignGeneratedValues(entity, generatedValues);
+            }
+        });
+        return notUpdated;
+    }
+
+    private Object keyToBind(T entity) {
+        return binders.getOrDefault(model().key(), Function.identity()).apply(model().key().member().getOn(entity));
+    }
+
+    @Override
+    public void upsert(Collection<T> entities) {
+        Optional<String> upsert = ddl().upsert();
+        if (upsert.isEmpty() || !canUpsert()) {
+            super.upsert(entities);
+            return;
+        }
+        Lists.chunk(entities, maxChunkSize).forEach(chunck -> dbi.useHandle(handle -> {
+                PreparedBatch preparedBatch = handle.prepareBatch(upsert.get());
+                chunck.forEach(entity -> bind(preparedBatch, model().columns().stream().filter(Column::insertable), entity).add());
                 preparedBatch.execute();
             })
         );
     }
 
+    private boolean canUpsert() {
+        // versions need to be checked, generated values to be returned, and the columns of the update must all be bound by the insert
+        return model().version().isEmpty()
+            && generatedColumns.length == 0
+            && model().key().insertable()
+            && model().columns().stream().allMatch(column -> column.insertable() || !column.updatable());
+    }
+
     @Override
     public boolean delete(Object key) {
         return delete(model().key().is(key)) > 0;
@@ -291,38 +491,123 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         if (keys.isEmpty()) {
             return 0L;
         }
-        return delete(model().key().in(keys));
+        return inChunks(keys, chunk -> delete(model().key().in(chunk))).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * applies the function to the keys in chunks of at most maxInListSize, as many at once as the pool has connections.
+     * Each chunk runs in its own statement, so a chunked delete is not atomic, unless it runs in a unit of work, where the
+     * chunks run one after the other on its handle.
+     */
+    private <K, R> List<R> inChunks(Collection<K> keys, Function<List<K>, R> function) {
+        List<List<K>> chunks = Lists.chunk(keys, maxInListSize);
+        int parallelism = dbi != null ? dbi.getConfig(SemlaJdbiConfig.class).maximumPoolSize : 1;
+        if (chunks.size() == 1 || parallelism < 2 || currentUnitOfWork().isPresent()) {
+            return chunks.stream().map(function).collect(Collectors.toList());
+        }
+        List<R> results = new ArrayList<>(chunks.size());
+        Lists.chunk(chunks, parallelism).forEach(concurrentChunks ->
+            Async.process(concurrentChunks, function, executor()).forEach(result -> {
+                if (result.second() != null) {
+                    Unchecked.rethrow(result.second() instanceof CompletionException ? result.second().getCause() : result.second());
+                }
+                results.add(result.first());
+            })
+        );
+        return results;
     }
 
     @Override
     public Optional<T> first(Predicates<T> predicates, Pagination<T> pagination) {
         return dbi.withHandle(handle ->
             query(handle::createQuery, new StringBuilder("SELECT * FROM " + ddl().escape(ddl().tablename())), predicates, pagination)
-                .map(this::mapRow).findFirst()
+                .map(rowMapper).findFirst()
         );
     }
 
     @Override
     public List<T> list(Predicates<T> predicates, Pagination<T> pagination) {
         return dbi.withHandle(handle -> query(handle::createQuery, new StringBuilder("SELECT * FROM " + ddl().escape(ddl().tablename())), predicates, pagination)
-            .map(this::mapRow).list());
+            .map(rowMapper).list());
+    }
+
+    @Override
+    public List<T> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        Set<Column<T>> projection = new LinkedHashSet<>();
+        projection.add(model().key());
+        projection.addAll(columns);
+        StringBuilder sql = new StringBuilder("SELECT ")
+            .append(projection.stream().map(column -> ddl().escape(column.name())).collect(Collectors.joining(", ")))
+            .append(" FROM ").append(ddl().escape(ddl().tablename()));
+        return dbi.withHandle(handle -> query(handle::createQuery, sql, predicates, pagination)
+            .map(new EntityRowMapper(projection)).list());
     }
 
+    @Override
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        Optional<Handle> unitOfWork = currentUnitOfWork();
+        if (unitOfWork.isPresent()) {
+            // already in a transaction, that outlives the stream
+            return query(unitOfWork.get()::createQuery, new StringBuilder("SELECT * FROM " + ddl().escape(ddl().tablename())), predicates, pagination)
+                .setFetchSize(fetchSize())
+                .map(rowMapper)
+                .stream();
+        }
+        Handle handle = dbi.open();
+        try {
+            // some drivers, like postgresql's, only fetch through a cursor within a transaction
+            handle.begin();
+            return query(handle::createQuery, new StringBuilder("SELECT * FROM " + ddl().escape(ddl().tablename())), predicates, pagination)
+                .setFetchSize(fetchSize())
+                .map(rowMapper)
+                .stream()
+                .onClose(() -> {
+                    try {
+                        handle.commit();
+                    } finally {
+                        handle.close();
+                    }
+                });
+        } catch (RuntimeException e) {
+            handle.close();
+            throw e;
+        }
+    }
 
     protected <SqlStatementType extends SqlStatement<SqlStatementType>> SqlStatementType bind(SqlStatementType sqlStatement,
                                                                                               Stream<Column<T>> columns,
                                                                                               T entity) {
         columns.forEach(column -> {
-            Object value = column.member().getOn(entity);
-            if (value != null) {
-                value = binders.getOrDefault(column, Function.identity()).apply(value);
-            }
+            Object value = valueToBind(column, entity);
             Class<?> type = value != null ? value.getClass() : column.member().getType();
             sqlStatement.bindByType(column.name(), value, type);
         });
         return sqlStatement;
     }
 
+    /**
+     * @return the value of the column on this entity, as it is bound to the statements.
+     */
+    protected Object valueToBind(Column<T> column, T entity) {
+        Object value = column.member().getOn(entity);
+        if (value != null) {
+            value = binders.getOrDefault(column, Function.identity()).apply(value);
+        }
+        return value;
+    }
+
+    protected boolean hasGeneratedColumns() {
+        return generatedColumns.length > 0;
+    }
+
+    protected String[] generatedColumns() {
+        return generatedColumns;
+    }
+
+    protected int maxChunkSize() {
+        return maxChunkSize;
+    }
+
     protected void assignGeneratedValues(T entity, List<Object> generatedValues) {
         // we cannot use the names, but can rely on the orders
         Map<String, Setter<T>> setters = Properties.settersOf(entity);
@@ -350,23 +635,31 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
 
     @Override
     public long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
-        return (long) dbi.withHandle(handle -> {
-            StringBuilder sql = new StringBuilder("UPDATE " + ddl().escape(ddl().tablename()) + " SET ");
-            values.keySet().stream()
-                .map(member -> model().getColumn(member).name())
-                .forEach(name -> sql.append(ddl().escape(name)).append(" = ").append(":").append(name).append(", "));
-            sql.delete(sql.length() - 2, sql.length());
-            model().version().ifPresent(version -> {
-                String name = version.name();
-                sql.append(", ").append(ddl().escape(name)).append(" = ").append(ddl().escape(name)).append(" + 1");
-            });
-            Update update = query(handle::createUpdate, sql, predicates, pagination);
-            values.forEach((member, value) -> {
-                Column<T> column = model().getColumn(member);
-                update.bind(column.name(), binders.getOrDefault(column, Function.identity()).apply(value));
-            });
-            return update.execute();
+        return (long) dbi.withHandle(handle -> bind(query(handle::createUpdate, patchStatement(values), predicates, pagination), values).execute());
+    }
+
+    /**
+     * @return the UPDATE statement setting the values and incrementing the version, without any predicate.
+     */
+    protected StringBuilder patchStatement(Values<T> values) {
+        StringBuilder sql = new StringBuilder("UPDATE " + ddl().escape(ddl().tablename()) + " SET ");
+        values.keySet().stream()
+            .map(member -> model().getColumn(member).name())
+            .forEach(name -> sql.append(ddl().escape(name)).append(" = ").append(":").append(name).append(", "));
+        sql.delete(sql.length() - 2, sql.length());
+        model().version().ifPresent(version -> {
+            String name = version.name();
+            sql.append(", ").append(ddl().escape(name)).append(" = ").append(ddl().escape(name)).append(" + 1");
+        });
+        return sql;
+    }
+
+    protected Update bind(Update update, Values<T> values) {
+        values.forEach((member, value) -> {
+            Column<T> column = model().getColumn(member);
+            update.bind(column.name(), binders.getOrDefault(column, Function.identity()).apply(value));
         });
+        return update;
     }
 
     @Override
@@ -381,22 +674,116 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
             .mapTo(Long.class).findOne().orElse(0L));
     }
 
-    protected T mapRow(ResultSet resultSet, StatementContext ctx) {
-        return model().newInstance(instance -> {
-            Map<String, Setter<T>> setters = Properties.settersOf(instance);
-            model().columns().forEach(column -> {
-                    Object value = unchecked(() -> mappers.computeIfAbsent(column, c -> r -> r.getObject(c.name(), c.member().getType())).apply(resultSet));
-                    setters.get(column.member().getName()).setOn(instance, value);
+    @Override
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        List<Column<T>> groupBy = aggregation.groupBy();
+        String groupColumns = groupBy.stream().map(column -> ddl().escape(column.name())).collect(Collectors.joining(", "));
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (!groupBy.isEmpty()) {
+            sql.append(groupColumns).append(", ");
+        }
+        sql.append("COUNT(*)");
+        aggregation.functions().forEach((function, columns) -> columns.forEach(column -> {
+            String name = ddl().escape(column.name());
+            switch (function) {
+                case sum -> sql.append(", SUM(").append(name).append(')');
+                // averages are computed out of the sums, as some databases keep the scale of integers
+                case avg -> sql.append(", SUM(").append(name).append("), COUNT(").append(name).append(')');
+                // aliased, for the mappers reading by name
+                case min -> sql.append(", MIN(").append(name).append(") AS ").append(name);
+                case max -> sql.append(", MAX(").append(name).append(") AS ").append(name);
+            }
+        }));
+        sql.append(" FROM ").append(ddl().escape(ddl().tablename()));
+        Map<String, Object> values = addPredicates(sql, predicates, Pagination.of(model().getType()));
+        if (!groupBy.isEmpty()) {
+            sql.append(" GROUP BY ").append(groupColumns).append(" ORDER BY ").append(groupColumns);
+        }
+        return dbi.withHandle(handle -> query(handle::createQuery, sql, values)
+            .map((resultSet, context) -> rowOf(resultSet, aggregation))
+            .list());
+    }
+
+    private Map<String, Object> rowOf(ResultSet resultSet, Aggregation<T> aggregation) throws SQLException {
+        List<Object> groupValues = new ArrayList<>();
+        int index = 1;
+        for (Column<T> column : aggregation.groupBy()) {
+            groupValues.add(read(resultSet, index++, column));
+        }
+        long count = resultSet.getLong(index++);
+        Map<Aggregation.Function, Map<Column<T>, Object>> values = new EnumMap<>(Aggregation.Function.class);
+        for (Map.Entry<Aggregation.Function, Set<Column<T>>> entry : aggregation.functions().entrySet()) {
+            Map<Column<T>, Object> valuesByColumn = values.computeIfAbsent(entry.getKey(), function -> new HashMap<>());
+            for (Column<T> column : entry.getValue()) {
+                switch (entry.getKey()) {
+                    case sum -> valuesByColumn.put(column, resultSet.getObject(index++));
+                    case avg -> {
+                        Number sum = (Number) resultSet.getObject(index++);
+                        long nonNulls = resultSet.getLong(index++);
+                        valuesByColumn.put(column, sum != null && nonNulls > 0 ? sum.doubleValue() / nonNulls : null);
+                    }
+                    case min, max -> valuesByColumn.put(column, read(resultSet, index++, column));
                 }
-            );
-        });
+            }
+        }
+        return aggregation.toRow(groupValues, count, (function, column) -> values.get(function).get(column));
+    }
+
+    private Object read(ResultSet resultSet, int index, Column<T> column) throws SQLException {
+        if (resultSet.getObject(index) == null) {
+            return null;
+        }
+        return unchecked(() -> mappers.get(column).apply(resultSet, index));
+    }
+
+    private ColumnReader<T> readerOf(Column<T> column) {
+        Setter<T> setter = Properties.settersOf(model().getType()).get(column.member().getName());
+        if (setter instanceof Member<T> member) {
+            // primitives go straight from the result set to the field, without being boxed
+            Accessor<T> accessor = member.accessor();
+            Class<?> type = member.getType();
+            if (type == int.class) {
+                return (resultSet, index, instance) -> accessor.setInt(instance, resultSet.getInt(index));
+            } else if (type == long.class) {
+                return (resultSet, index, instance) -> accessor.setLong(instance, resultSet.getLong(index));
+            } else if (type == double.class) {
+                return (resultSet, index, instance) -> accessor.setDouble(instance, resultSet.getDouble(index));
+            } else if (type == float.class) {
+                return (resultSet, index, instance) -> accessor.setFloat(instance, resultSet.getFloat(index));
+            } else if (type == boolean.class) {
+                return (resultSet, index, instance) -> accessor.setBoolean(instance, resultSet.getBoolean(index));
+            }
+        }
+        Throwables.BiFunction<ResultSet, Integer, ?> mapper = mappers.get(column);
+        return (resultSet, index, instance) -> setter.setOn(instance, mapper.apply(resultSet, index));
     }
 
     protected <SqlStatementType extends SqlStatement<SqlStatementType>> SqlStatementType query(Function<String, SqlStatementType> statementContructor,
                                                                                                StringBuilder sql,
                                                                                                Predicates<T> predicates,
                                                                                                Pagination<T> pagination) {
-        return query(statementContructor, sql, addPredicates(sql, predicates, pagination));
+        List<Condition<T>> conditions = conditionsOf(predicates, true);
+        List<Object> shape = shapeOf(sql, conditions, pagination);
+        Optional<StatementTemplate> template = templates.get(shape);
+        if (template == null) {
+            Map<String, Object> values = addConditions(sql, conditions, pagination);
+            // the template can only be replayed if the handlers bound exactly the values we would extract ourselves
+            template = new ArrayList<>(values.values()).equals(boundValuesOf(conditions, pagination))
+                ? Optional.of(new StatementTemplate(sql.toString(), values.keySet().toArray(String[]::new)))
+                : Optional.empty();
+            templates.putIfAbsent(shape, template);
+            return query(statementContructor, sql, values);
+        } else if (template.isPresent()) {
+            SqlStatementType query = statementContructor.apply(template.get().sql());
+            String[] placeholders = template.get().placeholders();
+            List<Object> values = boundValuesOf(conditions, pagination);
+            for (int i = 0; i < placeholders.length; i++) {
+                Object value = values.get(i);
+                query.bindByType(placeholders[i], value, value != null ? value.getClass() : Object.class);
+            }
+            return query;
+        }
+        return query(statementContructor, sql, addConditions(sql, conditions, pagination));
     }
 
     protected <SqlStatementType extends SqlStatement<SqlStatementType>> SqlStatementType query(Function<String, SqlStatementType> statementContructor,
@@ -408,69 +795,278 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
     }
 
     protected Map<String, Object> addPredicates(StringBuilder sql, Predicates<T> predicates, Pagination<T> pagination) {
+        return addConditions(sql, conditionsOf(predicates, false), pagination);
+    }
+
+    private Map<String, Object> addConditions(StringBuilder sql, List<Condition<T>> conditions, Pagination<T> pagination) {
         Map<String, Object> values = new LinkedHashMap<>();
-        if (!predicates.isEmpty()) {
+        if (!conditions.isEmpty()) {
             sql.append(" WHERE ");
-            predicates.forEach((field, operators) -> {
-                    Column<T> column = model().getColumn(field);
-                    operators.forEach((predicate, value) -> {
-                        appendPredicate(sql, column, predicate, value, values);
-                        sql.append(" AND ");
-                    });
-                }
-            );
+            conditions.forEach(condition -> {
+                appendPredicate(sql, condition.column(), condition.predicate(), condition.value(), values);
+                sql.append(" AND ");
+            });
             sql.delete(sql.length() - 5, sql.length());
         }
 
-        if (pagination.isSorted()) {
+        if (pagination.isKeyset()) {
+            sql.append(conditions.isEmpty() ? " WHERE " : " AND ");
+            addKeyset(sql, pagination, values);
+        }
+
+        if (pagination.isSorted() || pagination.isKeyset()) {
             sql.append(" ORDER BY ");
-            pagination.sort().forEach((member, sort) -> {
-                sql.append(ddl().escape(model().getColumn(member).name()));
-                if (sort != null) {
-                    sql.append(" ").append(sort.name());
-                }
-                sql.append(", ");
-            });
+            (pagination.isKeyset() ? pagination.keyset() : pagination.sort())
+                .forEach((member, sort) -> appendSort(sql, model().getColumn(member), sort).append(", "));
             sql.delete(sql.length() - 2, sql.length());
         }
 
         if (pagination.limit() < Integer.MAX_VALUE || pagination.start() > 0) {
-            addPagination(sql, pagination);
+            addPagination(sql, pagination, values);
         }
         return values;
     }
 
-    protected void addPagination(StringBuilder sql, Pagination<T> pagination) {
-        sql.append(" LIMIT ").append(pagination.limit());
+    /**
+     * renders the column and its sort, nulls being ordered first when ascending and last when descending, like the other
+     * datasources and the keyset conditions expect them.
+     */
+    protected StringBuilder appendSort(StringBuilder sql, Column<T> column, Pagination.Sort sort) {
+        sql.append(ddl().escape(column.name()));
+        if (sort != null) {
+            sql.append(" ").append(sort.name());
+        }
+        if (isNullable(column)) {
+            sql.append(isDescending(sort) ? " NULLS LAST" : " NULLS FIRST");
+        }
+        return sql;
+    }
+
+    /**
+     * renders (a, b) > (:a, :b) when all the columns of the keyset are sorted the same way, and the equivalent
+     * (a > :a OR (a = :a AND b < :b)) otherwise. Nulls being ordered first, the latter also handles the null values and the
+     * nullable columns sorted descending, that the row value comparison would leave out.
+     */
+    protected void addKeyset(StringBuilder sql, Pagination<T> pagination, Map<String, Object> values) {
+        List<Column<T>> columns = pagination.keyset().keySet().stream().map(model()::getColumn).collect(Collectors.toList());
+        List<Pagination.Sort> sorts = new ArrayList<>(pagination.keyset().values());
+        List<Object> after = pagination.after();
+        if (isRowValueComparable(pagination)) {
+            String operator = isDescending(sorts.get(0)) ? " < " : " > ";
+            if (columns.size() == 1) {
+                appendKeysetValue(sql.append(ddl().escape(columns.get(0).name())).append(operator), columns.get(0), after.get(0), values);
+            } else {
+                sql.append(columns.stream().map(column -> ddl().escape(column.name())).collect(Collectors.joining(", ", "(", ")"))).append(operator).append("(");
+                for (int i = 0; i < columns.size(); i++) {
+                    appendKeysetValue(sql, columns.get(i), after.get(i), values).append(", ");
+                }
+                sql.delete(sql.length() - 2, sql.length()).append(")");
+            }
+        } else {
+            sql.append("(");
+            for (int i = 0; i < columns.size(); i++) {
+                if (after.get(i) == null && isDescending(sorts.get(i))) {
+                    // nothing is ordered after a null
+                    continue;
+                }
+                sql.append(sql.charAt(sql.length() - 1) == '(' ? "(" : " OR (");
+                for (int j = 0; j < i; j++) {
+                    String name = ddl().escape(columns.get(j).name());
+                    if (after.get(j) == null) {
+                        sql.append(name).append(" IS NULL AND ");
+                    } else {
+                        appendKeysetValue(sql.append(name).append(" = "), columns.get(j), after.get(j), values).append(" AND ");
+                    }
+                }
+                String name = ddl().escape(columns.get(i).name());
+                if (after.get(i) == null) {
+                    sql.append(name).append(" IS NOT NULL)");
+                } else if (isDescending(sorts.get(i)) && isNullable(columns.get(i))) {
+                    appendKeysetValue(sql.append("(").append(name).append(" < "), columns.get(i), after.get(i), values)
+                        .append(" OR ").append(name).append(" IS NULL))");
+                } else {
+                    sql.append(name).append(isDescending(sorts.get(i)) ? " < " : " > ");
+                    appendKeysetValue(sql, columns.get(i), after.get(i), values).append(")");
+                }
+            }
+            sql.append(")");
+        }
+    }
+
+    protected boolean isNullable(Column<T> column) {
+        return column.nullable() && !column.member().getType().isPrimitive() && !column.equals(model().key());
+    }
+
+    /**
+     * @return true if the database can compare row values like (a, b) > (:a, :b) with bound parameters.
+     */
+    protected boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    private boolean isRowValueComparable(Pagination<T> pagination) {
+        if (!supportsRowValueComparison() || pagination.after().contains(null)
+            || pagination.keyset().values().stream().map(SqlDatasource::isDescending).distinct().count() != 1) {
+            return false;
+        }
+        // descending, the rows with a null would be left out
+        return !isDescending(pagination.keyset().values().iterator().next())
+            || pagination.keyset().keySet().stream().map(model()::getColumn).noneMatch(this::isNullable);
+    }
+
+    private StringBuilder appendKeysetValue(StringBuilder sql, Column<T> column, Object value, Map<String, Object> values) {
+        String placeholder = column.name() + values.size();
+        values.put(placeholder, keysetValue(column, value));
+        return sql.append(':').append(placeholder);
+    }
+
+    private Object keysetValue(Column<T> column, Object value) {
+        // references are already given by their keys
+        return isEntity(column.member().getType()) ? value : binders.getOrDefault(column, Function.identity()).apply(value);
+    }
+
+    private static boolean isDescending(Pagination.Sort sort) {
+        return sort == Pagination.Sort.DESC;
+    }
+
+    /**
+     * binds the limit and the offset, so that all the pages of a query share the same statement.
+     */
+    protected void addPagination(StringBuilder sql, Pagination<T> pagination, Map<String, Object> values) {
+        sql.append(" LIMIT :limit");
+        values.put("limit", pagination.limit());
         if (pagination.start() > 0) {
-            sql.append(" OFFSET ").append(pagination.start());
+            sql.append(" OFFSET :offset");
+            values.put("offset", pagination.start());
         }
     }
 
     public void withPredicateHandler(Predicate predicate, PentaConsumer<StringBuilder, Column<T>, Predicate, Object, Map<String, Object>> consumer) {
         predicateHandlers.put(predicate, consumer);
+        templates.clear();
+    }
+
+    /**
+     * @return the number of statement shapes rendered and cached so far.
+     */
+    int cachedTemplates() {
+        return templates.size();
+    }
+
+    /**
+     * @return the number of cached statement shapes that are replayed rather than rendered again.
+     */
+    long replayableTemplates() {
+        synchronized (templates) {
+            return templates.values().stream().filter(Optional::isPresent).count();
+        }
+    }
+
+    void clearTemplates() {
+        templates.clear();
+    }
+
+    private List<Condition<T>> conditionsOf(Predicates<T> predicates, boolean bucketed) {
+        List<Condition<T>> conditions = new ArrayList<>();
+        predicates.forEach((field, operators) -> {
+            Column<T> column = model().getColumn(field);
+            operators.forEach((predicate, value) -> {
+                if (bucketed && (predicate == Predicate.in || predicate == Predicate.notIn)) {
+                    value = bucketed((Collection<?>) value);
+                }
+                conditions.add(new Condition<>(column, predicate, value));
+            });
+        });
+        return conditions;
+    }
+
+    /**
+     * pads the collection to the next power of two by repeating its last element, which doesn't change the result of an
+     * IN or NOT IN, so that lists of close sizes share the same statement.
+     */
+    private static Collection<?> bucketed(Collection<?> collection) {
+        int size = collection.size();
+        int bucket = Integer.highestOneBit(Math.max(size, 1));
+        if (size == 0 || size == bucket) {
+            return collection;
+        }
+        List<Object> padded = new ArrayList<>(bucket << 1);
+        padded.addAll(collection);
+        Object last = padded.get(size - 1);
+        while (padded.size() < bucket << 1) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * everything the rendered SQL depends on, but not the values themselves.
+     */
+    private List<Object> shapeOf(StringBuilder sql, List<Condition<T>> conditions, Pagination<T> pagination) {
+        List<Object> shape = new ArrayList<>(conditions.size() * 3 + pagination.sort().size() * 2 + 3);
+        shape.add(sql.toString());
+        conditions.forEach(condition -> {
+            shape.add(condition.column());
+            shape.add(condition.predicate());
+            Object value = condition.value();
+            shape.add(value instanceof Collection<?> collection ? collection.size() : value != null ? value.getClass() : null);
+        });
+        pagination.sort().forEach((member, sort) -> {
+            shape.add(member);
+            shape.add(sort);
+        });
+        // which values of the keyset are null changes the conditions rendered
+        shape.add(pagination.isKeyset() ? pagination.after().stream().map(Objects::isNull).collect(Collectors.toList()) : null);
+        // the limit and the offset are bound, only whether they are rendered matters
+        shape.add(pagination.limit() < Integer.MAX_VALUE || pagination.start() > 0);
+        shape.add(pagination.start() > 0);
+        return shape;
+    }
+
+    private List<Object> boundValuesOf(List<Condition<T>> conditions, Pagination<T> pagination) {
+        List<Object> values = new ArrayList<>();
+        conditions.forEach(condition -> {
+            Function<Object, Object> binder = binders.getOrDefault(condition.column(), Function.identity());
+            Object value = condition.value();
+            switch (condition.predicate()) {
+                case in, notIn -> values.addAll(inValuesOf(condition.column(), (Collection<?>) value));
+                case contains, doesNotContain -> values.add(binder.apply("%" + value + "%"));
+                default -> {
+                    if (value != null) {
+                        values.add(binder.apply(value));
+                    }
+                }
+            }
+        });
+        if (pagination.isKeyset()) {
+            // in the order addKeyset binds them
+            List<Column<T>> columns = pagination.keyset().keySet().stream().map(model()::getColumn).collect(Collectors.toList());
+            List<Pagination.Sort> sorts = new ArrayList<>(pagination.keyset().values());
+            List<Object> after = pagination.after();
+            boolean uniform = isRowValueComparable(pagination);
+            for (int i = 0; i < columns.size(); i++) {
+                if (uniform || after.get(i) != null || !isDescending(sorts.get(i))) {
+                    for (int j = uniform ? i : 0; j <= i; j++) {
+                        if (after.get(j) != null) {
+                            values.add(keysetValue(columns.get(j), after.get(j)));
+                        }
+                    }
+                }
+            }
+        }
+        if (pagination.limit() < Integer.MAX_VALUE || pagination.start() > 0) {
+            values.add(pagination.limit());
+            if (pagination.start() > 0) {
+                values.add(pagination.start());
+            }
+        }
+        return values;
     }
 
     private void appendPredicate(StringBuilder sql, Column<T> column, Predicate predicate, Object value, Map<String, Object> values) {
         predicateHandlers.computeIfAbsent(predicate, newPredicate -> {
             return switch (newPredicate) {
-                case notIn, in -> (s, c, p, o, v) -> {
-                    s.append(ddl().escape(c.name())).append(" ");
-                    if (p == Predicate.notIn) {
-                        s.append("NOT ");
-                    }
-                    s.append("IN (");
-                    Collection<?> collection = (Collection<?>) o;
-                    if (!collection.isEmpty()) {
-                        collection.forEach(element -> {
-                            String columnName = c.name() + v.size();
-                            s.append(':').append(columnName).append(", ");
-                            v.put(columnName, binders.getOrDefault(c, Function.identity()).apply(element));
-                        });
-                        s.delete(s.length() - 2, s.length());
-                    }
-                    s.append(')');
-                };
+                case notIn, in -> (s, c, p, o, v) -> appendIn(s, c, p == Predicate.notIn, (Collection<?>) o, v);
                 case is -> (s, c, p, o, v) -> {
                     s.append(ddl().escape(c.name()));
                     if (o == null) {
@@ -506,47 +1102,121 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         }).accept(sql, column, predicate, value, values);
     }
 
-    protected void appendPlaceholder(StringBuilder sql, Column<T> column, Object value, Map<String, Object> values) {
+    protected void appendIn(StringBuilder sql, Column<T> column, boolean negated, Collection<?> collection, Map<String, Object> values) {
+        sql.append(ddl().escape(column.name())).append(" ");
+        if (negated) {
+            sql.append("NOT ");
+        }
+        sql.append("IN (");
+        if (!collection.isEmpty()) {
+            collection.forEach(element -> appendPlaceholder(sql, column, element, values).append(", "));
+            sql.delete(sql.length() - 2, sql.length());
+        }
+        sql.append(')');
+    }
+
+    /**
+     * @return the values {@link #appendIn} binds for that collection, in order.
+     */
+    protected List<Object> inValuesOf(Column<T> column, Collection<?> collection) {
+        return collection.stream().map(binders.getOrDefault(column, Function.identity())).collect(Collectors.toList());
+    }
+
+    protected StringBuilder appendPlaceholder(StringBuilder sql, Column<T> column, Object value, Map<String, Object> values) {
         String placeholder = column.name() + values.size();
         values.put(placeholder, binders.getOrDefault(column, Function.identity()).apply(value));
-        sql.append(':').append(placeholder);
+        return sql.append(':').append(placeholder);
     }
 
-    private <DateType> DateType getTemporal(Column<T> column, ResultSet resultSet, Function<Long, DateType> mapper) throws SQLException {
+    private <DateType> DateType getTemporal(Column<T> column, ResultSet resultSet, int index, Function<Long, DateType> mapper) throws SQLException {
         Date date = null;
         if (column.member().annotation(Temporal.class).isPresent()) {
             switch (column.member().annotation(Temporal.class).get().value()) {
-                case TIME -> date = resultSet.getTime(column.name());
-                case DATE -> date = resultSet.getDate(column.name(), UTC);
+                case TIME -> date = resultSet.getTime(index);
+                case DATE -> date = resultSet.getDate(index, UTC);
             }
         }
         if (date == null) {
-            date = resultSet.getTimestamp(column.name(), defaultCalendar);
+            date = resultSet.getTimestamp(index, defaultCalendar);
         }
         return date != null ? mapper.apply(date.getTime()) : null;
     }
 
+    private record Condition<T>(Column<T> column, Predicate predicate, Object value) {}
+
+    private record StatementTemplate(String sql, String[] placeholders) {}
+
+    private interface ColumnReader<T> {
+
+        void read(ResultSet resultSet, int index, T instance) throws Throwable;
+    }
+
+    /**
+     * Resolves the index of each column once per result set, and then reads every row by index through the column readers.
+     */
+    private class EntityRowMapper implements RowMapper<T> {
+
+        private final Collection<Column<T>> columns;
+
+        private EntityRowMapper(Collection<Column<T>> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public T map(ResultSet resultSet, StatementContext ctx) throws SQLException {
+            return specialize(resultSet, ctx).map(resultSet, ctx);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public RowMapper<T> specialize(ResultSet resultSet, StatementContext ctx) throws SQLException {
+            ColumnReader<T>[] readers = columns.stream().map(columnReaders::get).toArray(ColumnReader[]::new);
+            int[] indexes = new int[readers.length];
+            int i = 0;
+            for (Column<T> column : columns) {
+                indexes[i++] = resultSet.findColumn(column.name());
+            }
+            return (row, context) -> model().newInstance(instance -> unchecked(() -> {
+                for (int j = 0; j < readers.length; j++) {
+                    readers[j].read(row, indexes[j], instance);
+                }
+            }));
+        }
+    }
+
     public static class SemlaJdbiConfig implements JdbiConfig<SemlaJdbiConfig> {
 
         public boolean autoCreateTable;
+        public int maximumPoolSize = 1;
+        public ExecutorService executor;
+        // shared by all the copies, as the handle of a unit of work is bound to the thread rather than to a statement
+        private final ThreadLocal<Handle> unitOfWork;
 
         public SemlaJdbiConfig() {
+            this.unitOfWork = new ThreadLocal<>();
         }
 
-        private SemlaJdbiConfig(boolean autoCreateTable) {
+        private SemlaJdbiConfig(boolean autoCreateTable, int maximumPoolSize, ExecutorService executor, ThreadLocal<Handle> unitOfWork) {
             this.autoCreateTable = autoCreateTable;
+            this.maximumPoolSize = maximumPoolSize;
+            this.executor = executor;
+            this.unitOfWork = unitOfWork;
         }
 
         @Override
         public SemlaJdbiConfig createCopy() {
-            return new SemlaJdbiConfig(autoCreateTable);
+            return new SemlaJdbiConfig(autoCreateTable, maximumPoolSize, executor, unitOfWork);
         }
     }
 
     @SuppressWarnings("unchecked")
     public static abstract class Configuration<SelfType extends io.semla.datasource.SqlDatasource.Configuration<?>> implements Datasource.Configuration {
 
+        public static final int DEFAULT_QUEUE_SIZE = 1000;
+
         private boolean autoCreateTable;
+        private int queueSize = DEFAULT_QUEUE_SIZE;
+        private int queryTimeout;
         private final HikariConfig hikariConfig = new HikariConfig();
         private final Singleton<Jdbi> jdbi = Singleton.lazy(this::createJdbi);
 
@@ -638,6 +1308,34 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
             return (SelfType) this;
         }
 
+        @Serialize(When.NOT_DEFAULT)
+        public int queueSize() {
+            return queueSize;
+        }
+
+        /**
+         * @param queueSize how many asynchronous queries can wait for a connection before the callers start blocking.
+         */
+        @Deserialize
+        public SelfType withQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return (SelfType) this;
+        }
+
+        @Serialize(When.NOT_DEFAULT)
+        public int queryTimeout() {
+            return queryTimeout;
+        }
+
+        /**
+         * @param queryTimeout how many seconds a statement can run before the driver cancels it, 0 for no limit.
+         */
+        @Deserialize
+        public SelfType withQueryTimeout(int queryTimeout) {
+            this.queryTimeout = queryTimeout;
+            return (SelfType) this;
+        }
+
         public HikariConfig hikariConfig() {
             return hikariConfig;
         }
@@ -649,6 +1347,13 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         protected Jdbi createJdbi() {
             Jdbi jdbi = Jdbi.create(new HikariDataSource(hikariConfig));
             jdbi.getConfig().get(SemlaJdbiConfig.class).autoCreateTable = autoCreateTable;
+            jdbi.getConfig().get(SemlaJdbiConfig.class).maximumPoolSize = hikariConfig.getMaximumPoolSize();
+            // asynchronous queries never outnumber the connections, the others wait in the queue
+            jdbi.getConfig().get(SemlaJdbiConfig.class).executor =
+                new BoundedExecutorService("semla-jdbi", hikariConfig.getMaximumPoolSize(), queueSize);
+            if (queryTimeout > 0) {
+                jdbi.getConfig(SqlStatements.class).setQueryTimeout(queryTimeout);
+            }
             return jdbi;
         }
 
@@ -660,6 +1365,7 @@ public abstract class SqlDatasource<T> extends Datasource<T> {
         @Override
         public void close() {
             jdbi.get().useHandle(Handle::close);
+            Optional.ofNullable(jdbi.get().getConfig(SemlaJdbiConfig.class).executor).ifPresent(ExecutorService::shutdown);
             jdbi.reset();
         }
 
@@ -4,6 +4,8 @@ import io.semla.model.EntityModel;
 import io.semla.model.Player;
 import io.semla.reflect.Types;
 import io.semla.serialization.yaml.Yaml;
+import io.semla.util.concurrent.BoundedExecutorService;
+import org.jdbi.v3.core.statement.SqlStatements;
 import org.junit.Test;
 
 import java.time.Duration;
@@ -50,4 +52,22 @@ public class HsqlDatasourceConfigurationTest {
             Datasource.Configuration.class).create(model);
         assertThat(datasource).isInstanceOf(HsqlDatasource.class);
     }
+
+    @Test
+    public void parseExecutionSettings() {
+        HsqlDatasource.Configuration config = (HsqlDatasource.Configuration) Yaml.read("""
+                type: hsql
+                jdbcUrl: jdbc:hsqldb:mem:test
+                maximumPoolSize: 2
+                queueSize: 10
+                queryTimeout: 5
+                """,
+            Datasource.Configuration.class);
+        assertThat(config.queueSize()).isEqualTo(10);
+        assertThat(config.queryTimeout()).isEqualTo(5);
+        assertThat(config.jdbi().getConfig(SqlStatements.class).getQueryTimeout()).isEqualTo(5);
+        assertThat(config.jdbi().getConfig(SqlDatasource.SemlaJdbiConfig.class).executor)
+            .isInstanceOfSatisfying(BoundedExecutorService.class, executor -> assertThat(executor.getMaximumPoolSize()).isEqualTo(2));
+        config.close();
+    }
 }
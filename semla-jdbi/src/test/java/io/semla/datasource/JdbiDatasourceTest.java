@@ -1,10 +1,28 @@
 package io.semla.datasource;
 
-import io.semla.JdbiTest;
 import com.decathlon.tzatziki.steps.EntitySteps;
+import io.semla.JdbiTest;
+import io.semla.model.Player;
 import io.semla.model.User;
+import io.semla.model.VersionedEntity;
+import io.semla.persistence.EntityManager;
+import io.semla.query.Pagination;
+import io.semla.query.Predicates;
+import io.semla.query.Values;
+import io.semla.util.concurrent.Async;
+import io.semla.util.concurrent.BoundedExecutorService;
 import org.junit.Test;
 
+import javax.persistence.EntityExistsException;
+import javax.persistence.OptimisticLockException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class JdbiDatasourceTest {
 
@@ -21,4 +39,167 @@ public class JdbiDatasourceTest {
                 .findOne());
     }
 
+    @Test
+    public void statements_of_the_same_shape_are_only_rendered_once() {
+        SqlDatasource<User> userDatasource = EntitySteps.datasourceOf(User.class);
+        userDatasource.clearTemplates();
+
+        userDatasource.list(Predicates.of(User.class).where("name").is("a"), Pagination.of(User.class));
+        userDatasource.list(Predicates.of(User.class).where("name").is("b"), Pagination.of(User.class));
+        assertThat(userDatasource.cachedTemplates()).isEqualTo(1);
+
+        // IN lists are padded to the next power of two
+        userDatasource.list(Predicates.of(User.class).where("name").in("a", "b", "c"), Pagination.of(User.class));
+        userDatasource.list(Predicates.of(User.class).where("name").in("a", "b", "c", "d"), Pagination.of(User.class));
+        assertThat(userDatasource.cachedTemplates()).isEqualTo(2);
+
+        userDatasource.list(Predicates.of(User.class).where("name").is(null), Pagination.of(User.class).limitTo(1));
+        assertThat(userDatasource.cachedTemplates()).isEqualTo(3);
+        assertThat(userDatasource.replayableTemplates()).isEqualTo(3);
+    }
+
+    @Test
+    public void pages_share_the_same_statement() {
+        SqlDatasource<Player> players = EntitySteps.datasourceOf(Player.class);
+        players.create(IntStream.rangeClosed(1, 10).mapToObj(i -> Player.with(i, "player" + i, i)).collect(Collectors.toList()));
+        players.clearTemplates();
+
+        for (int start = 0; start < 10; start += 3) {
+            assertThat(players.list(Predicates.of(Player.class), Pagination.of(Player.class).orderedBy("id").startAt(start).limitTo(3)))
+                .extracting(player -> player.id)
+                .containsExactlyElementsOf(IntStream.rangeClosed(start + 1, Math.min(start + 3, 10)).boxed().collect(Collectors.toList()));
+        }
+        // the first page has no offset
+        assertThat(players.cachedTemplates()).isEqualTo(2);
+        assertThat(players.replayableTemplates()).isEqualTo(2);
+    }
+
+    @Test
+    public void keys_are_fetched_and_deleted_in_chunks() {
+        SqlDatasource<Player> players = EntitySteps.datasourceOf(Player.class);
+        players.withMaxInListSize(3);
+        players.create(IntStream.rangeClosed(1, 10).mapToObj(i -> Player.with(i, "player" + i, i)).collect(Collectors.toList()));
+        SqlDatasource.SemlaJdbiConfig config = players.raw().getConfig(SqlDatasource.SemlaJdbiConfig.class);
+        int maximumPoolSize = config.maximumPoolSize;
+        try {
+            config.maximumPoolSize = 2;
+            List<Integer> keys = List.of(10, 2, 11, 7, 1, 5, 3);
+            assertThat(players.get(keys)).containsOnlyKeys(keys).satisfies(playersByKey -> {
+                assertThat(playersByKey.keySet()).containsExactlyElementsOf(keys);
+                assertThat(playersByKey.get(11)).isNull();
+                assertThat(playersByKey.get(7).name).isEqualTo("player7");
+            });
+            assertThat(players.delete(keys)).isEqualTo(6L);
+            assertThat(players.count()).isEqualTo(4L);
+        } finally {
+            config.maximumPoolSize = maximumPoolSize;
+            players.withMaxInListSize(1000);
+            EntitySteps.cleanup();
+        }
+    }
+
+    @Test
+    public void batch_updates_are_rolled_back_and_name_all_the_version_conflicts() {
+        SqlDatasource<VersionedEntity> datasource = EntitySteps.datasourceOf(VersionedEntity.class);
+        List<VersionedEntity> entities = IntStream.range(0, 3).mapToObj(i -> {
+            VersionedEntity entity = new VersionedEntity();
+            entity.uuid = UUID.randomUUID();
+            entity.name = "entity" + i;
+            return entity;
+        }).toList();
+        try {
+            datasource.create(entities);
+            entities.forEach(entity -> entity.version = 1);
+            // entities 0 and 2 are modified concurrently
+            datasource.patch(Values.of(VersionedEntity.class).with("value", 1),
+                Predicates.of(VersionedEntity.class).where("uuid").in(entities.get(0).uuid, entities.get(2).uuid));
+            entities.forEach(entity -> entity.name += "_updated");
+            assertThatThrownBy(() -> datasource.update(entities))
+                .isInstanceOf(OptimisticLockException.class)
+                .hasMessageContaining(entities.get(0).uuid.toString())
+                .hasMessageContaining(entities.get(2).uuid.toString())
+                .hasMessageNotContaining(entities.get(1).uuid.toString());
+            assertThat(datasource.get(entities.get(1).uuid).get().name).isEqualTo("entity1");
+
+            datasource.update(List.of(entities.get(1)));
+            assertThat(datasource.get(entities.get(1).uuid).get().name).isEqualTo("entity1_updated");
+            assertThat(datasource.get(entities.get(1).uuid).get().version).isEqualTo(2);
+        } finally {
+            EntitySteps.cleanup();
+        }
+    }
+
+    @Test
+    public void asynchronous_queries_run_on_an_executor_bounded_by_the_pool() {
+        SqlDatasource<Player> players = EntitySteps.datasourceOf(Player.class);
+        int maximumPoolSize = players.raw().getConfig(SqlDatasource.SemlaJdbiConfig.class).maximumPoolSize;
+        assertThat(players.executor()).isInstanceOfSatisfying(BoundedExecutorService.class, executor ->
+            assertThat(executor.getMaximumPoolSize()).isEqualTo(maximumPoolSize));
+        try {
+            EntityManager<Integer, Player> playerManager = EntitySteps.entityManagerOf(Player.class);
+            List<CompletionStage<Player>> creations = IntStream.rangeClosed(1, 100)
+                .mapToObj(i -> playerManager.async().create(Player.with(i, "player" + i, i)))
+                .toList();
+            assertThat(Async.joinAll(creations)).hasSize(100);
+            assertThat(((BoundedExecutorService) players.executor()).getLargestPoolSize()).isLessThanOrEqualTo(maximumPoolSize);
+            assertThat(playerManager.async().count().toCompletableFuture().join()).isEqualTo(100L);
+        } finally {
+            EntitySteps.cleanup();
+        }
+    }
+
+    @Test
+    public void a_unit_of_work_shares_one_handle_and_one_transaction() {
+        SqlDatasource<Player> players = EntitySteps.datasourceOf(Player.class);
+        SqlDatasource<VersionedEntity> entities = EntitySteps.datasourceOf(VersionedEntity.class);
+        players.withMaxInListSize(1);
+        SqlDatasource.SemlaJdbiConfig config = players.raw().getConfig(SqlDatasource.SemlaJdbiConfig.class);
+        int maximumPoolSize = config.maximumPoolSize;
+        try {
+            config.maximumPoolSize = 2;
+            assertThatThrownBy(() -> players.unitOfWork(() -> {
+                players.create(List.of(Player.with(1, "bob", 100), Player.with(2, "tom", 200)));
+                VersionedEntity entity = new VersionedEntity();
+                entity.uuid = UUID.randomUUID();
+                entity.name = "bob";
+                entities.create(entity);
+                // the chunks and the streams also read through the handle of the unit of work
+                assertThat(players.get(List.of(1, 2))).hasSize(2).doesNotContainValue(null);
+                assertThat(players.stream(Predicates.of(Player.class), Pagination.of(Player.class))).hasSize(2);
+                players.raw().useHandle(handle -> assertThat(handle.isInTransaction()).isTrue());
+                throw new IllegalStateException("rolled back");
+            })).isInstanceOf(IllegalStateException.class).hasMessage("rolled back");
+            assertThat(players.count()).isZero();
+            assertThat(entities.count()).isZero();
+
+            assertThat(players.unitOfWork(() -> {
+                players.create(Player.with(1, "bob", 100));
+                return players.get(1);
+            })).isPresent();
+            assertThat(players.count()).isEqualTo(1L);
+        } finally {
+            config.maximumPoolSize = maximumPoolSize;
+            players.withMaxInListSize(1000);
+            EntitySteps.cleanup();
+        }
+    }
+
+    @Test
+    public void a_duplicate_create_throws_entity_exists() {
+        SqlDatasource<Player> players = EntitySteps.datasourceOf(Player.class);
+        try {
+            players.create(Player.with(1, "bob", 100));
+            assertThatThrownBy(() -> players.create(Player.with(1, "tom", 200))).isInstanceOf(EntityExistsException.class);
+
+            // within a unit of work, the transaction is still usable after the failed insert
+            assertThat(players.unitOfWork(() -> {
+                assertThatThrownBy(() -> players.create(Player.with(1, "tom", 200))).isInstanceOf(EntityExistsException.class);
+                players.create(Player.with(2, "lea", 300));
+                return players.count();
+            })).isEqualTo(2L);
+            assertThat(players.get(1)).hasValueSatisfying(player -> assertThat(player.name).isEqualTo("bob"));
+        } finally {
+            EntitySteps.cleanup();
+        }
+    }
 }
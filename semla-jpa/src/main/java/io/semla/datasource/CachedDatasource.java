@@ -1,6 +1,7 @@
 package io.semla.datasource;
 
 import io.semla.model.EntityModel;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
@@ -9,14 +10,17 @@ import io.semla.serialization.annotations.Serialize;
 import io.semla.serialization.annotations.TypeName;
 import io.semla.util.Pair;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CachedDatasource<T> extends Datasource<T> {
 
+    // the keys put in each cache during the current unit of work, evicted if it fails
+    private static final ThreadLocal<Map<CachedDatasource<?>, Set<Object>>> TOUCHED = new ThreadLocal<>();
+
     private final Datasource<T> cache;
     private final Datasource<T> datasource;
 
@@ -31,12 +35,57 @@ public class CachedDatasource<T> extends Datasource<T> {
         return Pair.of(cache, datasource);
     }
 
+    @Override
+    public ExecutorService executor() {
+        return datasource.executor();
+    }
+
+    @Override
+    public <R> R unitOfWork(Supplier<R> work) {
+        return evictingOnFailure(() -> datasource.unitOfWork(work));
+    }
+
+    /**
+     * runs the work, and evicts the entities it put in any cache if it fails, as they might have been rolled back.
+     */
+    public static <R> R evictingOnFailure(Supplier<R> work) {
+        if (TOUCHED.get() != null) {
+            // the outermost call evicts
+            return work.get();
+        }
+        Map<CachedDatasource<?>, Set<Object>> touched = new LinkedHashMap<>();
+        TOUCHED.set(touched);
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            touched.forEach((datasource, keys) -> datasource.cache.delete(keys));
+            throw e;
+        } finally {
+            TOUCHED.remove();
+        }
+    }
+
+    private void touched(Collection<T> entities) {
+        Map<CachedDatasource<?>, Set<Object>> touched = TOUCHED.get();
+        if (touched != null) {
+            Set<Object> keys = touched.computeIfAbsent(this, datasource -> new LinkedHashSet<>());
+            entities.forEach(entity -> keys.add(EntityModel.keyOf(entity)));
+        }
+    }
+
+    private void touched(T entity) {
+        touched(List.of(entity));
+    }
+
     @Override
     public Optional<T> get(Object key) {
         Optional<T> cached = cache.get(key);
         if (cached.isEmpty()) {
             Optional<T> persisted = datasource.get(key);
-            persisted.ifPresent(cache::create);
+            persisted.ifPresent(entity -> {
+                touched(entity);
+                cache.create(entity);
+            });
             return persisted;
         }
         return cached;
@@ -50,6 +99,7 @@ public class CachedDatasource<T> extends Datasource<T> {
             Map<K, T> persisted = datasource.get(misses);
             persisted.forEach((key, value) -> {
                 if (value != null) {
+                    touched(value);
                     cache.create(value);
                     hits.put(key, value);
                 }
@@ -61,27 +111,38 @@ public class CachedDatasource<T> extends Datasource<T> {
     @Override
     public void create(T entity) {
         datasource.create(entity);
+        touched(entity);
         cache.create(entity);
     }
 
     @Override
     public void create(Collection<T> entities) {
         datasource.create(entities);
+        touched(entities);
         cache.create(entities);
     }
 
     @Override
     public void update(T entity) {
         datasource.update(entity);
+        touched(entity);
         cache.update(entity);
     }
 
     @Override
     public void update(Collection<T> entities) {
         datasource.update(entities);
+        touched(entities);
         cache.update(entities);
     }
 
+    @Override
+    public void upsert(Collection<T> entities) {
+        datasource.upsert(entities);
+        touched(entities);
+        cache.upsert(entities);
+    }
+
     @Override
     public boolean delete(Object key) {
         cache.delete(key);
@@ -97,6 +158,7 @@ public class CachedDatasource<T> extends Datasource<T> {
     @Override
     public Optional<T> first(Predicates<T> predicates, Pagination<T> pagination) {
         return datasource.first(predicates, pagination).map(entity -> {
+            touched(entity);
             cache.update(entity);
             return entity;
         });
@@ -105,18 +167,31 @@ public class CachedDatasource<T> extends Datasource<T> {
     @Override
     public List<T> list(Predicates<T> predicates, Pagination<T> pagination) {
         List<T> entities = datasource.list(predicates, pagination);
+        touched(entities);
         cache.update(entities);
         return entities;
     }
 
+    @Override
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        // streamed entities are not cached, the point is not to hold them all
+        return datasource.stream(predicates, pagination);
+    }
+
     @Override
     public long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
         long patched;
         if (cache instanceof KeyValueDatasource) {
             List<Object> keys = datasource.list(predicates, pagination).stream().map(EntityModel::keyOf).collect(Collectors.toList());
             patched = datasource.patch(values, predicates, pagination);
-            cache.update(datasource.get(keys).values());
+            Collection<T> entities = datasource.get(keys).values();
+            touched(entities);
+            cache.update(entities);
         } else {
+            if (TOUCHED.get() != null) {
+                // the patched entities have to be known to be evicted
+                touched(datasource.list(predicates, pagination));
+            }
             patched = datasource.patch(values, predicates, pagination);
             cache.patch(values, predicates, pagination);
         }
@@ -133,6 +208,11 @@ public class CachedDatasource<T> extends Datasource<T> {
         return keys.size();
     }
 
+    @Override
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        return datasource.aggregate(predicates, aggregation);
+    }
+
     @Override
     public long count(Predicates<T> predicates) {
         return datasource.count(predicates);
@@ -1,25 +1,34 @@
 package io.semla.datasource;
 
 import io.semla.cache.Cache;
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
 import io.semla.persistence.CacheEntry;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
 import io.semla.serialization.annotations.TypeInfo;
+import io.semla.util.concurrent.Async;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class Datasource<T> {
 
+    private static final int STREAM_PAGE_SIZE = 1000;
+
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final EntityModel<T> model;
 
@@ -33,6 +42,21 @@ public abstract class Datasource<T> {
         return model;
     }
 
+    /**
+     * @return the executor the asynchronous queries on this datasource run on.
+     */
+    public ExecutorService executor() {
+        return Async.defaultExecutorService;
+    }
+
+    /**
+     * runs the work as a single unit on this datasource, the calls made from the current thread within it joining it. By
+     * default, it just runs it.
+     */
+    public <R> R unitOfWork(Supplier<R> work) {
+        return work.get();
+    }
+
     protected EntityExistsException alreadyExists(Object key) {
         return new EntityExistsException("entity '" + model().singularName() + "' with key '" + key + "' already exist!");
     }
@@ -41,6 +65,17 @@ public abstract class Datasource<T> {
         return new EntityNotFoundException("entity '" + model().singularName() + "' with key '" + key + "' doesn't exist!");
     }
 
+    /**
+     * @return the exception to throw when some entities of a batch couldn't be updated, naming all their keys.
+     */
+    protected PersistenceException notUpdated(List<T> entities) {
+        List<Object> keys = entities.stream().map(model().key().member()::getOn).collect(Collectors.toList());
+        if (model().version().isPresent()) {
+            return new OptimisticLockException("while updating the " + model().pluralName() + " with keys " + keys, null, entities.get(0));
+        }
+        return notFound(keys.size() == 1 ? keys.get(0) : keys);
+    }
+
     public abstract Optional<T> get(Object key);
 
     public abstract <K> Map<K, T> get(Collection<K> keys);
@@ -53,6 +88,25 @@ public abstract class Datasource<T> {
 
     public abstract void update(Collection<T> entities);
 
+    /**
+     * creates the entities that don't exist yet and updates the others. Datasources that can do it natively in one statement
+     * should override this default, which first gets the keys.
+     */
+    public void upsert(Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Map<Object, T> existing = get(entities.stream().map(model().key().member()::getOn).collect(Collectors.toList()));
+        Map<Boolean, List<T>> byExistence = entities.stream()
+            .collect(Collectors.partitioningBy(entity -> existing.get(model().key().member().getOn(entity)) != null));
+        if (!byExistence.get(true).isEmpty()) {
+            update(byExistence.get(true));
+        }
+        if (!byExistence.get(false).isEmpty()) {
+            create(byExistence.get(false));
+        }
+    }
+
     public abstract boolean delete(Object key);
 
     public abstract long delete(Collection<?> keys);
@@ -85,6 +139,63 @@ public abstract class Datasource<T> {
 
     public abstract List<T> list(Predicates<T> predicates, Pagination<T> pagination);
 
+    /**
+     * lists the matching entities with only the given columns and the key populated. Datasources that can fetch fewer columns
+     * should override this default, which copies them out of the complete entities.
+     */
+    public List<T> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        return list(predicates, pagination).stream()
+            .map(entity -> model().newInstance(copy -> {
+                model().key().member().setOn(copy, model().key().member().getOn(entity));
+                columns.forEach(column -> column.member().setOn(copy, column.member().getOn(entity)));
+            }))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * streams the entities matching the predicates, the stream needs to be closed once consumed. Datasources that have cursors
+     * should override this default, which pages through {@link #list(Predicates, Pagination)} and holds at most one page in memory.
+     */
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        Pagination<T> pages = pagination.copy();
+        if (!pages.isSorted()) {
+            // the pages need a stable order
+            pages.orderedBy(model().key().member());
+        }
+        Iterator<T> iterator = new Iterator<>() {
+            private int start = pagination.start();
+            private int remaining = pagination.limit();
+            private boolean exhausted;
+            private Iterator<T> page = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !exhausted && remaining > 0) {
+                    int size = Math.min(STREAM_PAGE_SIZE, remaining);
+                    List<T> entities = list(predicates, pages.copy().startAt(start).limitTo(size));
+                    start += entities.size();
+                    remaining -= entities.size();
+                    exhausted = entities.size() < size;
+                    page = entities.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public final Stream<T> stream(Predicates<T> predicates) {
+        return stream(predicates, Pagination.of(model().getType()));
+    }
+
     public final long patch(Values<T> values, Predicates<T> predicates) {
         return patch(values, predicates, Pagination.of(model().getType()));
     }
@@ -101,6 +212,14 @@ public abstract class Datasource<T> {
 
     public abstract long delete(Predicates<T> predicates, Pagination<T> pagination);
 
+    /**
+     * computes the aggregation over the matching entities. Datasources that can aggregate natively should override this default,
+     * which reduces all the entities in memory.
+     */
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        return aggregation.reduce(list(predicates).stream());
+    }
+
     public final long count() {
         return count(Predicates.of(model().getType()));
     }
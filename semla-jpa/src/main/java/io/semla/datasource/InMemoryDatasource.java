@@ -2,9 +2,12 @@ package io.semla.datasource;
 
 import io.semla.model.Column;
 import io.semla.model.EntityModel;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
+import io.semla.query.Predicate;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
+import io.semla.reflect.Member;
 import io.semla.reflect.Types;
 import io.semla.serialization.annotations.TypeName;
 import io.semla.serialization.json.Json;
@@ -13,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.persistence.OptimisticLockException;
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -20,21 +24,36 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Keeps the entities in a map by key. The leading column of each secondary index of the model is also kept in a hash index, and in
+ * a sorted one for numbers and dates, so that the queries on those columns don't need to scan all the entities.
+ */
 public class InMemoryDatasource<T> extends Datasource<T> {
 
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final Map<Object, T> entities = Collections.synchronizedMap(new LinkedHashMap<>());
+    // the order in which the keys were inserted, to return the entities found through an index in the same order as a scan would
+    private final Map<Object, Long> sequences = new HashMap<>();
+    private final Map<Member<T>, ColumnIndex> indices = new LinkedHashMap<>();
     private final Consumer<T> primaryKeySetter;
+    private long sequence;
 
     public InMemoryDatasource(EntityModel<T> model) {
         super(model);
         primaryKeySetter = createColumnGenerator(model.key());
+        model.indices().stream()
+            .filter(index -> !index.isPrimary())
+            // only the first column of a composite index can be searched on its own
+            .map(index -> index.columns().get(0))
+            .filter(column -> isIndexable(column.member()))
+            .forEach(column -> indices.computeIfAbsent(column.member(), ColumnIndex::new));
     }
 
     @Override
     public Map<Object, T> raw() {
-        return entities;
+        // read only, the indices would not see the changes
+        return Collections.unmodifiableMap(entities);
     }
 
     @Override
@@ -53,10 +72,15 @@ public class InMemoryDatasource<T> extends Datasource<T> {
     public void create(T entity) {
         primaryKeySetter.accept(entity);
         Object key = model().key().member().getOn(entity);
-        get(key).ifPresent(current -> {
-            throw alreadyExists(key);
-        });
-        entities.put(key, EntityModel.copy(entity));
+        synchronized (entities) {
+            if (entities.containsKey(key)) {
+                throw alreadyExists(key);
+            }
+            T copy = EntityModel.copy(entity);
+            entities.put(key, copy);
+            sequences.put(key, sequence++);
+            indices.values().forEach(index -> index.add(key, copy));
+        }
     }
 
     @Override
@@ -67,31 +91,56 @@ public class InMemoryDatasource<T> extends Datasource<T> {
     @Override
     public void update(T entity) {
         Object key = model().key().member().getOn(entity);
-        if (!entities.containsKey(key)) {
-            throw notFound(key);
-        }
-        T copy = EntityModel.copy(entity);
-        if (model().version().isPresent()) {
-            Column<T> version = model().version().get();
+        synchronized (entities) {
             T current = entities.get(key);
-            int assumedVersion = version.member().<Integer>getOn(entity);
-            if (version.member().<Integer>getOn(current) != assumedVersion) {
-                throw new OptimisticLockException("when updating " + Json.write(entity));
+            if (current == null) {
+                throw notFound(key);
             }
-            version.member().setOn(copy, version.member().<Integer>getOn(copy) + 1);
+            T copy = EntityModel.copy(entity);
+            if (model().version().isPresent()) {
+                Column<T> version = model().version().get();
+                int assumedVersion = version.member().<Integer>getOn(entity);
+                if (version.member().<Integer>getOn(current) != assumedVersion) {
+                    throw new OptimisticLockException("when updating " + Json.write(entity));
+                }
+                version.member().setOn(copy, version.member().<Integer>getOn(copy) + 1);
+            }
+            indices.values().forEach(index -> index.remove(key, current));
+            entities.put(key, copy);
+            indices.values().forEach(index -> index.add(key, copy));
         }
-        entities.put(key, copy);
     }
 
 
     @Override
     public void update(Collection<T> entities) {
-        entities.forEach(this::update);
+        synchronized (this.entities) {
+            List<T> notUpdated = entities.stream().filter(entity -> !isUpToDate(entity)).collect(Collectors.toList());
+            if (!notUpdated.isEmpty()) {
+                throw notUpdated(notUpdated);
+            }
+            entities.forEach(this::update);
+        }
+    }
+
+    private boolean isUpToDate(T entity) {
+        T current = entities.get(model().key().member().getOn(entity));
+        return current != null && model().version()
+            .map(version -> version.member().<Integer>getOn(current).equals(version.member().<Integer>getOn(entity)))
+            .orElse(true);
     }
 
     @Override
     public boolean delete(Object key) {
-        return entities.remove(key) != null;
+        synchronized (entities) {
+            T removed = entities.remove(key);
+            if (removed == null) {
+                return false;
+            }
+            sequences.remove(key);
+            indices.values().forEach(index -> index.remove(key, removed));
+            return true;
+        }
     }
 
     @Override
@@ -101,43 +150,305 @@ public class InMemoryDatasource<T> extends Datasource<T> {
 
     @Override
     public long count(Predicates<T> predicates) {
-        return entities.values().stream().filter(predicates::matches).count();
+        return predicates.filter(candidates(predicates, Pagination.of(model())).entities()).count();
+    }
+
+    @Override
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        List<T> snapshot;
+        synchronized (entities) {
+            snapshot = new ArrayList<>(candidates(predicates, Pagination.of(model())).entities());
+        }
+        return aggregation.reduce(snapshot.parallelStream().filter(predicates::matches));
     }
 
     @Override
     public Optional<T> first(Predicates<T> predicates, Pagination<T> pagination) {
-        return stream(predicates, pagination).findFirst();
+        return filter(predicates, pagination).findFirst().map(EntityModel::copy);
     }
 
     @Override
     public List<T> list(Predicates<T> predicates, Pagination<T> pagination) {
-        return stream(predicates, pagination).collect(Collectors.toList());
+        return filter(predicates, pagination).map(EntityModel::copy).collect(Collectors.toList());
     }
 
     @Override
     public long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
-        return filter(predicates, pagination)
-            .peek(entity -> {
-                values.forEach((key, value) -> key.setOn(entity, value));
+        synchronized (entities) {
+            List<T> patched = filter(predicates, pagination).toList();
+            patched.forEach(entity -> {
+                Object key = model().key().member().getOn(entity);
+                indices.values().forEach(index -> index.remove(key, entity));
+                values.forEach((member, value) -> member.setOn(entity, value));
                 model().version().ifPresent(version -> version.member().setOn(entity, version.member().<Integer>getOn(entity) + 1));
-            })
-            .count();
+                indices.values().forEach(index -> index.add(key, entity));
+            });
+            return patched.size();
+        }
     }
 
     @Override
     public long delete(Predicates<T> predicates, Pagination<T> pagination) {
-        return filter(predicates, pagination)
-            .toList().stream() // we need to get those entities to be able to remove them
-            .map(entity -> entities.remove(model().key().member().getOn(entity)) != null ? 1 : 0)
-            .reduce(0, Integer::sum);
+        synchronized (entities) {
+            return filter(predicates, pagination)
+                .toList().stream() // we need to get those entities to be able to remove them
+                .map(entity -> delete((Object) model().key().member().getOn(entity)) ? 1 : 0)
+                .reduce(0, Integer::sum);
+        }
     }
 
-    private Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
-        return filter(predicates, pagination).map(EntityModel::copy);
+    @Override
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        Candidates<T> candidates;
+        synchronized (entities) {
+            // the stream can be consumed lazily, while the entities are being modified
+            candidates = candidates(predicates, pagination);
+            candidates = new Candidates<>(new ArrayList<>(candidates.entities()), candidates.sorted());
+        }
+        return paginate(predicates, pagination, candidates).map(EntityModel::copy);
     }
 
     private Stream<T> filter(Predicates<T> predicates, Pagination<T> pagination) {
-        return pagination.paginate(predicates.filter(entities.values()));
+        return paginate(predicates, pagination, candidates(predicates, pagination));
+    }
+
+    private Stream<T> paginate(Predicates<T> predicates, Pagination<T> pagination, Candidates<T> candidates) {
+        if (candidates.sorted()) {
+            // already in order, only the start and the limit are left to apply
+            pagination = pagination.copy();
+            pagination.sort().clear();
+        }
+        return pagination.paginate(predicates.filter(candidates.entities()));
+    }
+
+    /**
+     * Picks the entities the predicates need to be tested on: the smallest set of keys found for an equality on the key or on an
+     * indexed column, or else the ones in range of an indexed number or date, or else all the entities. When no equality was found
+     * and the pagination is only sorted by an indexed number or date, all the entities are returned in that order instead.
+     * <p>
+     * Every candidate is still tested against all the predicates, the indices only narrow down what needs to be tested.
+     */
+    private Candidates<T> candidates(Predicates<T> predicates, Pagination<T> pagination) {
+        synchronized (entities) {
+            Set<Object> keys = null;
+            Collection<Set<Object>> inRange = null;
+            for (Map.Entry<Member<T>, Map<Predicate, Object>> predicate : predicates.entrySet()) {
+                boolean isKey = predicate.getKey().equals(model().key().member());
+                ColumnIndex index = indices.get(predicate.getKey());
+                for (Map.Entry<Predicate, Object> operation : predicate.getValue().entrySet()) {
+                    Set<Object> found = isKey
+                        ? keysOf(operation.getKey(), operation.getValue())
+                        : index != null ? index.keysOf(operation.getKey(), operation.getValue()) : null;
+                    if (found != null && (keys == null || found.size() < keys.size())) {
+                        keys = found;
+                    } else if (found == null && inRange == null && index != null) {
+                        inRange = index.keysInRange(operation.getKey(), operation.getValue());
+                    }
+                }
+            }
+            if (keys != null) {
+                return new Candidates<>(inInsertionOrder(keys.stream()), false);
+            }
+            ColumnIndex sortedBy = sortedBy(pagination);
+            if (sortedBy != null) {
+                return new Candidates<>(sortedBy.entities(pagination.sort().get(sortedBy.member)), true);
+            }
+            if (inRange != null) {
+                return new Candidates<>(inInsertionOrder(inRange.stream().flatMap(Set::stream)), false);
+            }
+            return new Candidates<>(entities.values(), false);
+        }
+    }
+
+    private Set<Object> keysOf(Predicate predicate, Object control) {
+        Class<?> keyType = Types.wrap(model().key().member().getType());
+        return switch (predicate) {
+            case is -> keyType.isInstance(control) ? Set.of(control) : null;
+            case in -> ((List<?>) control).stream().allMatch(keyType::isInstance) ? new HashSet<>((List<?>) control) : null;
+            default -> null;
+        };
+    }
+
+    private ColumnIndex sortedBy(Pagination<T> pagination) {
+        if (pagination.isKeyset() || pagination.sort().size() != 1) {
+            return null;
+        }
+        ColumnIndex index = indices.get(pagination.sort().keySet().iterator().next());
+        return index != null && index.isSortable() ? index : null;
+    }
+
+    private List<T> inInsertionOrder(Stream<Object> keys) {
+        return keys
+            .filter(sequences::containsKey)
+            .sorted(Comparator.comparing(sequences::get))
+            .map(entities::get)
+            .collect(Collectors.toList());
+    }
+
+    private static boolean isIndexable(Member<?> member) {
+        Class<?> type = member.getType();
+        return !type.equals(Object.class)
+            && !type.isInterface()
+            && !type.isArray()
+            && !Types.isAssignableToOneOf(type, Collection.class, Map.class, Optional.class);
+    }
+
+    private record Candidates<T>(Collection<T> entities, boolean sorted) {}
+
+    /**
+     * The keys of the entities by value of a column. Values are normalized the way {@link Predicate#is} compares them: numbers and
+     * dates as decimals, entities by key and anything else by its json form, unless its equals already is. The decimals are also
+     * kept sorted, to look up ranges and to list the entities in order.
+     */
+    private class ColumnIndex {
+
+        private final Member<T> member;
+        private final boolean decimal;
+        private final Map<Object, Set<Object>> keysByValue = new HashMap<>();
+        private final NavigableMap<BigDecimal, Set<Object>> keysByDecimal = new TreeMap<>();
+        private final Set<Object> keysOfNulls = new HashSet<>();
+        // values that aren't decimals, such as NaN, they are returned as candidates of any lookup
+        private final Set<Object> keysOfOthers = new HashSet<>();
+
+        private ColumnIndex(Member<T> member) {
+            this.member = member;
+            this.decimal = Types.isAssignableToOneOf(member.getType(), Number.class, Date.class);
+        }
+
+        private void add(Object key, T entity) {
+            Object value = member.getOn(entity);
+            if (value == null) {
+                keysOfNulls.add(key);
+            } else {
+                Object normalized = normalize(value);
+                if (normalized == null) {
+                    keysOfOthers.add(key);
+                } else {
+                    keysByValue.computeIfAbsent(normalized, v -> {
+                        Set<Object> keys = new HashSet<>();
+                        if (decimal) {
+                            keysByDecimal.put((BigDecimal) v, keys);
+                        }
+                        return keys;
+                    }).add(key);
+                }
+            }
+        }
+
+        private void remove(Object key, T entity) {
+            Object value = member.getOn(entity);
+            if (value == null) {
+                keysOfNulls.remove(key);
+            } else {
+                Object normalized = normalize(value);
+                if (normalized == null) {
+                    keysOfOthers.remove(key);
+                } else {
+                    Set<Object> keys = keysByValue.get(normalized);
+                    if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                        keysByValue.remove(normalized);
+                        if (decimal) {
+                            keysByDecimal.remove(normalized);
+                        }
+                    }
+                }
+            }
+        }
+
+        private Set<Object> keysOf(Predicate predicate, Object control) {
+            return switch (predicate) {
+                case is -> canLookUp(control) ? keysOf(control) : null;
+                case in -> {
+                    List<?> controls = (List<?>) control;
+                    if (!controls.stream().allMatch(this::canLookUp)) {
+                        yield null;
+                    }
+                    Set<Object> keys = new HashSet<>();
+                    controls.forEach(value -> keys.addAll(keysOf(value)));
+                    yield keys;
+                }
+                default -> null;
+            };
+        }
+
+        private Set<Object> keysOf(Object control) {
+            Set<Object> keys = keysByValue.getOrDefault(normalize(control), Set.of());
+            if (keysOfOthers.isEmpty()) {
+                return keys;
+            }
+            Set<Object> candidates = new HashSet<>(keys);
+            candidates.addAll(keysOfOthers);
+            return candidates;
+        }
+
+        private Collection<Set<Object>> keysInRange(Predicate predicate, Object control) {
+            if (!decimal || !(control instanceof Number || control instanceof Date) || normalize(control) == null) {
+                return null;
+            }
+            BigDecimal bound = (BigDecimal) normalize(control);
+            NavigableMap<BigDecimal, Set<Object>> range = switch (predicate) {
+                case greaterOrEquals -> keysByDecimal.tailMap(bound, true);
+                case greaterThan -> keysByDecimal.tailMap(bound, false);
+                case lessOrEquals -> keysByDecimal.headMap(bound, true);
+                case lessThan -> keysByDecimal.headMap(bound, false);
+                default -> null;
+            };
+            if (range == null) {
+                return null;
+            }
+            List<Set<Object>> keys = new ArrayList<>(range.values());
+            keys.add(keysOfOthers);
+            return keys;
+        }
+
+        private boolean isSortable() {
+            return decimal && keysOfOthers.isEmpty();
+        }
+
+        /**
+         * @return the entities in the same order as {@link Pagination#paginate(Stream)} would sort them, nulls first when ascending.
+         */
+        private List<T> entities(Pagination.Sort sort) {
+            List<T> sorted = new ArrayList<>(entities.size());
+            boolean ascending = sort == null || sort.equals(Pagination.Sort.ASC);
+            if (ascending) {
+                sorted.addAll(inInsertionOrder(keysOfNulls.stream()));
+            }
+            (ascending ? keysByDecimal : keysByDecimal.descendingMap()).values()
+                .forEach(keys -> sorted.addAll(inInsertionOrder(keys.stream())));
+            if (!ascending) {
+                sorted.addAll(inInsertionOrder(keysOfNulls.stream()));
+            }
+            return sorted;
+        }
+
+        private boolean canLookUp(Object control) {
+            if (control == null) {
+                return false;
+            } else if (decimal) {
+                return control instanceof Number || control instanceof Date;
+            } else if (EntityModel.isEntity(member.getType())) {
+                return EntityModel.isEntity(control);
+            }
+            return Types.wrap(member.getType()).isInstance(control);
+        }
+
+        private Object normalize(Object value) {
+            if (value instanceof Number || value instanceof Date) {
+                try {
+                    return (value instanceof Date date ? new BigDecimal(date.getTime()) : new BigDecimal(String.valueOf(value)))
+                        .stripTrailingZeros();
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            } else if (EntityModel.isEntity(value)) {
+                return normalize(EntityModel.keyOf(value));
+            } else if (value instanceof String || value instanceof Enum || value instanceof UUID
+                || value instanceof Boolean || value instanceof Character) {
+                return value;
+            }
+            return Json.write(value);
+        }
     }
 
     private Consumer<T> createColumnGenerator(Column<T> column) {
@@ -12,6 +12,7 @@ import io.semla.serialization.annotations.Serialize;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static io.semla.util.Strings.emptyIfNull;
 
@@ -34,6 +35,11 @@ public abstract class KeyValueDatasource<T> extends Datasource<T> {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public final Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public final long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
         throw new UnsupportedOperationException();
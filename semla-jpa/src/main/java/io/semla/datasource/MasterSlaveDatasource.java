@@ -1,6 +1,8 @@
 package io.semla.datasource;
 
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
@@ -10,7 +12,10 @@ import io.semla.serialization.annotations.TypeName;
 import io.semla.util.Pair;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MasterSlaveDatasource<T> extends Datasource<T> {
 
@@ -29,6 +34,16 @@ public class MasterSlaveDatasource<T> extends Datasource<T> {
         return Pair.of(master, slaves);
     }
 
+    @Override
+    public ExecutorService executor() {
+        return master.executor();
+    }
+
+    @Override
+    public <R> R unitOfWork(Supplier<R> work) {
+        return master.unitOfWork(work);
+    }
+
     @Override
     public Optional<T> get(Object key) {
         return slave().get(key);
@@ -59,6 +74,11 @@ public class MasterSlaveDatasource<T> extends Datasource<T> {
         master.update(entities);
     }
 
+    @Override
+    public void upsert(Collection<T> entities) {
+        master.upsert(entities);
+    }
+
     @Override
     public boolean delete(Object key) {
         return master.delete(key);
@@ -79,6 +99,16 @@ public class MasterSlaveDatasource<T> extends Datasource<T> {
         return slave().list(predicates, pagination);
     }
 
+    @Override
+    public List<T> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        return slave().list(predicates, pagination, columns);
+    }
+
+    @Override
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        return slave().stream(predicates, pagination);
+    }
+
     @Override
     public long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
         return master.patch(values, predicates, pagination);
@@ -89,6 +119,11 @@ public class MasterSlaveDatasource<T> extends Datasource<T> {
         return master.delete(predicates, pagination);
     }
 
+    @Override
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        return slave().aggregate(predicates, aggregation);
+    }
+
     @Override
     public long count(Predicates<T> predicates) {
         return slave().count(predicates);
@@ -1,6 +1,8 @@
 package io.semla.datasource;
 
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
@@ -9,7 +11,10 @@ import io.semla.serialization.annotations.Serialize;
 import io.semla.serialization.annotations.TypeName;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ReadOneWriteAllDatasource<T> extends Datasource<T> {
 
@@ -26,6 +31,23 @@ public class ReadOneWriteAllDatasource<T> extends Datasource<T> {
         return datasources;
     }
 
+    @Override
+    public ExecutorService executor() {
+        return datasources.get(0).executor();
+    }
+
+    @Override
+    public <R> R unitOfWork(Supplier<R> work) {
+        // nested, so that the writes are only committed once they succeeded on all the datasources
+        Supplier<R> nested = work;
+        for (int i = datasources.size() - 1; i >= 0; i--) {
+            Datasource<T> datasource = datasources.get(i);
+            Supplier<R> inner = nested;
+            nested = () -> datasource.unitOfWork(inner);
+        }
+        return nested.get();
+    }
+
     @Override
     public Optional<T> get(Object key) {
         return datasource().get(key);
@@ -56,6 +78,11 @@ public class ReadOneWriteAllDatasource<T> extends Datasource<T> {
         datasources.forEach(datasource -> datasource.update(entities));
     }
 
+    @Override
+    public void upsert(Collection<T> entities) {
+        datasources.forEach(datasource -> datasource.upsert(entities));
+    }
+
     @Override
     public boolean delete(Object key) {
         return datasources.stream().map(datasource -> datasource.delete(key)).reduce(Boolean::logicalOr).orElse(false);
@@ -76,6 +103,16 @@ public class ReadOneWriteAllDatasource<T> extends Datasource<T> {
         return datasource().list(predicates, pagination);
     }
 
+    @Override
+    public List<T> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        return datasource().list(predicates, pagination, columns);
+    }
+
+    @Override
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        return datasource().stream(predicates, pagination);
+    }
+
     @Override
     public long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
         return datasources.parallelStream()
@@ -92,6 +129,11 @@ public class ReadOneWriteAllDatasource<T> extends Datasource<T> {
                 .orElse(0L);
     }
 
+    @Override
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        return datasource().aggregate(predicates, aggregation);
+    }
+
     @Override
     public long count(Predicates<T> predicates) {
         return datasource().count(predicates);
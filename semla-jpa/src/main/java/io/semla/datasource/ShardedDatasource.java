@@ -241,6 +241,12 @@ public class ShardedDatasource<T> extends Datasource<T> {
     }
 
     protected Pagination<T> pagination(Pagination<T> pagination) {
+        if (pagination.isKeyset()) {
+            // each shard returns the first entities after the keyset, merged and paginated again afterwards
+            return pagination.copy()
+                    .startAt(0)
+                    .limitTo(pagination.limit() < Integer.MAX_VALUE ? pagination.start() + pagination.limit() : Integer.MAX_VALUE);
+        }
         return pagination.copy()
                 .startAt(Math.max(0, pagination.start() / datasources.size()))
                 .limitTo(pagination.limit() < Integer.MAX_VALUE
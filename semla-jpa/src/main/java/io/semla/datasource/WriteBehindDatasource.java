@@ -0,0 +1,531 @@
+package io.semla.datasource;
+
+import io.semla.model.Column;
+import io.semla.model.EntityModel;
+import io.semla.query.Aggregation;
+import io.semla.query.Pagination;
+import io.semla.query.Predicates;
+import io.semla.query.Values;
+import io.semla.serialization.annotations.Deserialize;
+import io.semla.serialization.annotations.Serialize;
+import io.semla.serialization.annotations.TypeName;
+import io.semla.serialization.annotations.When;
+import io.semla.util.Singleton;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Queues the writes in memory, where they are coalesced per key, and writes them behind to the datasource in batches, once
+ * flushSize keys are queued or flushInterval milliseconds after the first write. The writer that fills the queue up to
+ * queueSize keys flushes it itself, so that writing faster than the datasource slows the writers down.
+ * <p>
+ * Getting entities by key sees the queued writes, all the other queries flush the queue first. Creates that need a generated
+ * key and updates of versioned entities are written directly. As the queued writes are only persisted later, their failures
+ * can't be thrown to the caller, they are logged and passed to the {@link Listener} instead. Creating a key that already has
+ * a pending write is refused right away, but a create of a key that is only in the datasource fails once flushed.
+ */
+public class WriteBehindDatasource<T> extends Datasource<T> {
+
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+    public static final int DEFAULT_FLUSH_SIZE = 1000;
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+    private static final Singleton<ScheduledExecutorService> SCHEDULER = Singleton.lazy(() ->
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "semla-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        })
+    );
+
+    private final Datasource<T> datasource;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<Object, Write<T>> queued = new LinkedHashMap<>();
+    private Map<Object, Write<T>> flushing = Map.of();
+    private boolean flushRequested;
+    private boolean timerScheduled;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private int flushSize = DEFAULT_FLUSH_SIZE;
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private Listener<T> listener = new Listener<>() {};
+
+    public WriteBehindDatasource(EntityModel<T> model, Datasource<T> datasource) {
+        super(model);
+        this.datasource = datasource;
+    }
+
+    /**
+     * @param queueSize how many keys can be queued before the writers start flushing the queue themselves.
+     */
+    public WriteBehindDatasource<T> withQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    /**
+     * @param flushSize how many keys are written at once.
+     */
+    public WriteBehindDatasource<T> withFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+        return this;
+    }
+
+    /**
+     * @param flushInterval how many milliseconds a write can stay in the queue.
+     */
+    public WriteBehindDatasource<T> withFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+        return this;
+    }
+
+    public WriteBehindDatasource<T> withListener(Listener<T> listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    @Override
+    public Datasource<T> raw() {
+        return datasource;
+    }
+
+    @Override
+    public ExecutorService executor() {
+        return datasource.executor();
+    }
+
+    @Override
+    public <R> R unitOfWork(Supplier<R> work) {
+        return datasource.unitOfWork(work);
+    }
+
+    /**
+     * @return the number of keys waiting to be written.
+     */
+    public int queued() {
+        lock.lock();
+        try {
+            return queued.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<T> get(Object key) {
+        Write<T> write = writeOf(key);
+        if (write != null) {
+            return Optional.ofNullable(write.entity());
+        }
+        return datasource.get(key);
+    }
+
+    @Override
+    public <K> Map<K, T> get(Collection<K> keys) {
+        Map<K, Write<T>> writes = new HashMap<>();
+        lock.lock();
+        try {
+            keys.forEach(key -> {
+                Write<T> write = queued.getOrDefault(key, flushing.get(key));
+                if (write != null) {
+                    writes.put(key, write);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        List<K> misses = keys.stream().filter(key -> !writes.containsKey(key)).collect(Collectors.toList());
+        Map<K, T> persisted = misses.isEmpty() ? Map.of() : datasource.get(misses);
+        Map<K, T> entities = new LinkedHashMap<>();
+        keys.forEach(key -> entities.put(key, writes.containsKey(key) ? writes.get(key).entity() : persisted.get(key)));
+        return entities;
+    }
+
+    private Write<T> writeOf(Object key) {
+        lock.lock();
+        try {
+            return queued.getOrDefault(key, flushing.get(key));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void create(T entity) {
+        if (model().key().member().isDefaultOn(entity)) {
+            // the caller needs the generated key right away
+            datasource.create(entity);
+        } else {
+            enqueue(new Write<>(Write.Type.CREATE, keyOf(entity), entity));
+        }
+    }
+
+    @Override
+    public void create(Collection<T> entities) {
+        Map<Boolean, List<T>> byGeneratedKey = entities.stream().collect(Collectors.partitioningBy(model().key().member()::isDefaultOn));
+        if (!byGeneratedKey.get(true).isEmpty()) {
+            datasource.create(byGeneratedKey.get(true));
+        }
+        byGeneratedKey.get(false).forEach(entity -> enqueue(new Write<>(Write.Type.CREATE, keyOf(entity), entity)));
+    }
+
+    @Override
+    public void update(T entity) {
+        if (model().version().isPresent()) {
+            // the version has to be checked at the time of the update, after the writes queued before it
+            flush();
+            datasource.update(entity);
+        } else {
+            enqueue(new Write<>(Write.Type.UPDATE, keyOf(entity), entity));
+        }
+    }
+
+    @Override
+    public void update(Collection<T> entities) {
+        if (model().version().isPresent()) {
+            flush();
+            datasource.update(entities);
+        } else {
+            entities.forEach(entity -> enqueue(new Write<>(Write.Type.UPDATE, keyOf(entity), entity)));
+        }
+    }
+
+    @Override
+    public void upsert(Collection<T> entities) {
+        entities.forEach(entity -> enqueue(new Write<>(Write.Type.UPSERT, keyOf(entity), entity)));
+    }
+
+    @Override
+    public boolean delete(Object key) {
+        if (get(key).isEmpty()) {
+            return false;
+        }
+        enqueue(new Write<>(Write.Type.DELETE, key, null));
+        return true;
+    }
+
+    @Override
+    public long delete(Collection<?> keys) {
+        List<?> existing = get(keys).entrySet().stream()
+            .filter(entry -> entry.getValue() != null)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+        existing.forEach(key -> enqueue(new Write<>(Write.Type.DELETE, key, null)));
+        return existing.size();
+    }
+
+    @Override
+    public Optional<T> first(Predicates<T> predicates, Pagination<T> pagination) {
+        flush();
+        return datasource.first(predicates, pagination);
+    }
+
+    @Override
+    public List<T> list(Predicates<T> predicates, Pagination<T> pagination) {
+        flush();
+        return datasource.list(predicates, pagination);
+    }
+
+    @Override
+    public List<T> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        flush();
+        return datasource.list(predicates, pagination, columns);
+    }
+
+    @Override
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        flush();
+        return datasource.stream(predicates, pagination);
+    }
+
+    @Override
+    public long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
+        flush();
+        return datasource.patch(values, predicates, pagination);
+    }
+
+    @Override
+    public long delete(Predicates<T> predicates, Pagination<T> pagination) {
+        flush();
+        return datasource.delete(predicates, pagination);
+    }
+
+    @Override
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        flush();
+        return datasource.aggregate(predicates, aggregation);
+    }
+
+    @Override
+    public long count(Predicates<T> predicates) {
+        flush();
+        return datasource.count(predicates);
+    }
+
+    private Object keyOf(T entity) {
+        return model().key().member().getOn(entity);
+    }
+
+    private void enqueue(Write<T> write) {
+        checkPending(write, writeOf(write.key()));
+        // before the write is accepted, so that a journal can refuse it
+        listener.queued(write);
+        boolean full;
+        boolean flushNow = false;
+        boolean scheduleTimer = false;
+        lock.lock();
+        try {
+            checkPending(write, queued.getOrDefault(write.key(), flushing.get(write.key())));
+            queued.merge(write.key(), write, Write::then);
+            full = queued.size() >= queueSize;
+            if (!full && !flushRequested && queued.size() >= flushSize) {
+                flushRequested = flushNow = true;
+            }
+            if (!timerScheduled) {
+                timerScheduled = scheduleTimer = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flush();
+        } else if (flushNow) {
+            flushLater();
+        }
+        if (scheduleTimer) {
+            SCHEDULER.get().schedule(this::flushLater, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void checkPending(Write<T> write, Write<T> pending) {
+        if (pending == null) {
+            return;
+        }
+        // the datasource would refuse those, and merged with the pending write they would overwrite it
+        if (write.type() == Write.Type.CREATE && pending.type() != Write.Type.DELETE) {
+            throw alreadyExists(write.key());
+        }
+        if (write.type() == Write.Type.UPDATE && pending.type() == Write.Type.DELETE) {
+            throw notFound(write.key());
+        }
+    }
+
+    private void flushLater() {
+        ExecutorService executor = executor();
+        if (executor.isShutdown()) {
+            logger.warn("not flushing " + model().pluralName() + " as the executor is shutdown");
+            return;
+        }
+        try {
+            executor.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            logger.warn("not flushing " + model().pluralName() + " as the executor is shutdown");
+        }
+    }
+
+    /**
+     * writes all the queued writes to the datasource, in one unit of work per type of write. When a batch fails, its writes are
+     * retried one at a time, and only the ones that fail again are logged and passed to {@link Listener#failed(List, Throwable)}.
+     * On a datasource without transactions, a failed batch may already be partly written, and those writes are reported as
+     * failed when their retry fails.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Object, Write<T>> writes;
+            lock.lock();
+            try {
+                if (queued.isEmpty()) {
+                    return;
+                }
+                writes = flushing = queued;
+                queued = new LinkedHashMap<>();
+                flushRequested = timerScheduled = false;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                write(writes.values());
+            } finally {
+                lock.lock();
+                try {
+                    flushing = Map.of();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Collection<Write<T>> writes) {
+        // each key is written only once per flush, so the order of the batches doesn't matter
+        writes.stream()
+            .collect(Collectors.groupingBy(Write::type, () -> new EnumMap<>(Write.Type.class), Collectors.toList()))
+            .forEach((type, batch) -> {
+                try {
+                    write(type, batch);
+                    listener.flushed(batch);
+                } catch (RuntimeException e) {
+                    if (batch.size() == 1) {
+                        logger.error("while writing behind " + type + " of " + model().singularName() + " " + batch.get(0).key(), e);
+                        listener.failed(batch, e);
+                    } else {
+                        // the unit of work was rolled back, only the writes failing on their own are reported
+                        logger.warn("while writing behind " + batch.size() + " " + type + " of " + model().pluralName() + ", retrying one by one", e);
+                        batch.forEach(write -> write(List.of(write)));
+                    }
+                }
+            });
+    }
+
+    private void write(Write.Type type, List<Write<T>> batch) {
+        datasource.unitOfWork(() -> {
+            switch (type) {
+                case CREATE -> datasource.create(entitiesOf(batch));
+                case UPDATE -> datasource.update(entitiesOf(batch));
+                case UPSERT -> datasource.upsert(entitiesOf(batch));
+                case DELETE -> datasource.delete(batch.stream().map(Write::key).collect(Collectors.toList()));
+            }
+            return null;
+        });
+    }
+
+    private List<T> entitiesOf(List<Write<T>> writes) {
+        return writes.stream().map(Write::entity).collect(Collectors.toList());
+    }
+
+    /**
+     * A queued write, the entity being null for deletes.
+     */
+    public record Write<T>(Type type, Object key, T entity) {
+
+        public enum Type {
+            CREATE, UPDATE, UPSERT, DELETE
+        }
+
+        /**
+         * @return the write that has the same effect as this one followed by the next one.
+         */
+        private Write<T> then(Write<T> next) {
+            return switch (next.type) {
+                // a create following anything but a delete, or an update following a delete, is refused before being queued
+                case CREATE -> new Write<>(Type.UPSERT, key, next.entity);
+                case UPDATE -> new Write<>(type, key, next.entity);
+                case UPSERT, DELETE -> next;
+            };
+        }
+    }
+
+    /**
+     * Hooks to make the queued writes durable, by journaling them until they are flushed or by handing over the failed ones.
+     */
+    public interface Listener<T> {
+
+        /**
+         * called before the write is queued, throwing rejects it.
+         */
+        default void queued(Write<T> write) {}
+
+        /**
+         * called once a batch of writes is persisted.
+         */
+        default void flushed(List<Write<T>> writes) {}
+
+        /**
+         * called when a batch of writes couldn't be persisted.
+         */
+        default void failed(List<Write<T>> writes, Throwable cause) {}
+    }
+
+    public static WriteBehindDatasource.Configuration configure() {
+        return new WriteBehindDatasource.Configuration();
+    }
+
+    @TypeName("write-behind")
+    public static class Configuration implements Datasource.Configuration {
+
+        private Datasource.Configuration datasource;
+        private int queueSize = DEFAULT_QUEUE_SIZE;
+        private int flushSize = DEFAULT_FLUSH_SIZE;
+        private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+        private final List<WriteBehindDatasource<?>> datasources = new CopyOnWriteArrayList<>();
+
+        @Serialize
+        public Datasource.Configuration datasource() {
+            return datasource;
+        }
+
+        @Deserialize
+        public WriteBehindDatasource.Configuration withDatasource(Datasource.Configuration datasource) {
+            this.datasource = datasource;
+            return this;
+        }
+
+        @Serialize(When.NOT_DEFAULT)
+        public int queueSize() {
+            return queueSize;
+        }
+
+        @Deserialize
+        public WriteBehindDatasource.Configuration withQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        @Serialize(When.NOT_DEFAULT)
+        public int flushSize() {
+            return flushSize;
+        }
+
+        @Deserialize
+        public WriteBehindDatasource.Configuration withFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+            return this;
+        }
+
+        @Serialize(When.NOT_DEFAULT)
+        public long flushInterval() {
+            return flushInterval;
+        }
+
+        /**
+         * @param flushInterval how many milliseconds a write can stay in the queue.
+         */
+        @Deserialize
+        public WriteBehindDatasource.Configuration withFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        @Override
+        public <T> WriteBehindDatasource<T> create(EntityModel<T> model) {
+            WriteBehindDatasource<T> writeBehindDatasource = new WriteBehindDatasource<>(model, datasource.create(model))
+                .withQueueSize(queueSize)
+                .withFlushSize(flushSize)
+                .withFlushInterval(flushInterval);
+            datasources.add(writeBehindDatasource);
+            return writeBehindDatasource;
+        }
+
+        /**
+         * flushes all the datasources created by this configuration before closing the underlying one.
+         */
+        @Override
+        public void close() {
+            datasources.forEach(WriteBehindDatasource::flush);
+            datasource.close();
+        }
+    }
+}
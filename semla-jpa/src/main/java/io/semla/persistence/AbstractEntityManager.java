@@ -1,5 +1,6 @@
 package io.semla.persistence;
 
+import io.semla.datasource.CachedDatasource;
 import io.semla.datasource.Datasource;
 import io.semla.model.EntityModel;
 import io.semla.persistence.annotations.StrictIndices;
@@ -76,6 +77,10 @@ public abstract class AbstractEntityManager<K, T> {
         return datasource.model();
     }
 
+    protected ExecutorService executor() {
+        return datasource.executor();
+    }
+
     public Optional<T> get(K key) {
         return get(newContext(), key, defaultEagersOf(model()));
     }
@@ -115,14 +120,14 @@ public abstract class AbstractEntityManager<K, T> {
     }
 
     protected T create(PersistenceContext context, T entity, Includes<T> includes) {
-        return execute(() -> Query.create(entity, includes), () -> {
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.create(entity, includes), () -> {
             prePersist(entity);
             datasource.create(entity);
             context.entityContext().remapOrCache(entity);
             includes.createOrUpdateOn(entity, context);
             invokeListener(entity, PostPersist.class);
             return entity;
-        });
+        }));
     }
 
     private void prePersist(T entity) {
@@ -160,13 +165,13 @@ public abstract class AbstractEntityManager<K, T> {
     }
 
     protected <CollectionType extends Collection<T>> CollectionType create(PersistenceContext context, CollectionType entities, Includes<T> includes) {
-        return execute(() -> Query.create(entities, includes), () -> {
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.create(entities, includes), () -> {
             entities.forEach(this::prePersist);
             datasource.create(entities);
             includes.createOrUpdateOn(entities, context);
             entities.forEach(entity -> invokeListener(entity, PostPersist.class));
             return entities;
-        });
+        }));
     }
 
     public T update(T entity) {
@@ -174,7 +179,7 @@ public abstract class AbstractEntityManager<K, T> {
     }
 
     protected T update(PersistenceContext context, T entity, Includes<T> includes) {
-        return execute(() -> Query.update(entity, includes), () -> {
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.update(entity, includes), () -> {
             invokeListener(entity, PreUpdate.class);
             validate(entity);
             datasource.update(entity);
@@ -182,7 +187,7 @@ public abstract class AbstractEntityManager<K, T> {
             model().version().ifPresent(version -> version.member().setOn(entity, version.member().<Integer>getOn(entity) + 1));
             invokeListener(entity, PostUpdate.class);
             return entity;
-        });
+        }));
     }
 
     @SafeVarargs
@@ -199,7 +204,7 @@ public abstract class AbstractEntityManager<K, T> {
     }
 
     protected <CollectionType extends Collection<T>> CollectionType update(PersistenceContext context, CollectionType entities, Includes<T> includes) {
-        return execute(() -> Query.update(entities, includes), () -> {
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.update(entities, includes), () -> {
             entities.forEach(entity -> invokeListener(entity, PreUpdate.class));
             datasource.update(entities);
             includes.createOrUpdateOn(entities, context);
@@ -208,7 +213,30 @@ public abstract class AbstractEntityManager<K, T> {
             );
             entities.forEach(entity -> invokeListener(entity, PostUpdate.class));
             return entities;
-        });
+        }));
+    }
+
+    /**
+     * @return true if entities can be created or updated at once. Only when we don't need to know which were created: no
+     * generated key or version to assign, and no persist or update listener to invoke.
+     */
+    protected boolean canUpsert() {
+        return !model().key().isGenerated()
+            && model().version().isEmpty()
+            && Stream.of(PrePersist.class, PostPersist.class, PreUpdate.class, PostUpdate.class)
+            .allMatch(annotation -> listeners.getOrDefault(annotation, Collections.emptyList()).isEmpty());
+    }
+
+    protected <CollectionType extends Collection<T>> CollectionType upsert(PersistenceContext context, CollectionType entities, Includes<T> includes) {
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.upsert(entities, includes), () -> {
+            entities.forEach(entity -> {
+                entityManagerFactory.injector().inject(entity);
+                validate(entity);
+            });
+            datasource.upsert(entities);
+            includes.createOrUpdateOn(entities, context);
+            return entities;
+        }));
     }
 
     public boolean delete(K key) {
@@ -216,8 +244,8 @@ public abstract class AbstractEntityManager<K, T> {
     }
 
     protected boolean delete(PersistenceContext context, K key, Includes<T> includes) {
-        return execute(() -> Query.delete(key, includes), () -> {
-            model().relations().forEach(relation -> addDetachIfMissing(includes, relation));
+        model().relations().forEach(relation -> addDetachIfMissing(includes, relation));
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.delete(key, includes), () -> {
             if (listeners.containsKey(PreRemove.class) || listeners.containsKey(PostRemove.class) || !includes.relations().isEmpty()) {
                 T entity = get(context, key, Includes.of(model())).orElseThrow(() -> new EntityNotFoundException("entity not found for key " + key));
                 entity = invokeListener(entity, PreRemove.class);
@@ -228,7 +256,7 @@ public abstract class AbstractEntityManager<K, T> {
             } else {
                 return datasource.delete(key);
             }
-        });
+        }));
     }
 
     protected <R> void addDetachIfMissing(Includes<T> includes, Relation<T, R> relation) {
@@ -248,12 +276,24 @@ public abstract class AbstractEntityManager<K, T> {
     }
 
     protected long delete(PersistenceContext context, Collection<K> keys, Includes<T> includes) {
-        return execute(() -> Query.delete(keys, includes), () -> {
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.delete(keys, includes), () -> {
             if (!includes.relations().isEmpty()) {
                 includes.deleteOn(get(context, keys, Includes.of(model())).values(), context);
             }
             return datasource.delete(keys);
-        });
+        }));
+    }
+
+    /**
+     * runs the cascading writes in a single unit of work on the datasource, so that the writes on the relations stored in the
+     * same database share its connection and its transaction. Writes without any relation to cascade just run. If the unit of
+     * work fails, the entities it put in the persistence context and in the caches are evicted, as they were rolled back.
+     */
+    protected <R> R inUnitOfWork(PersistenceContext context, Includes<T> includes, Supplier<R> write) {
+        if (includes.relations().isEmpty()) {
+            return write.get();
+        }
+        return context.entityContext().evictingOnFailure(() -> CachedDatasource.evictingOnFailure(() -> datasource.unitOfWork(write)));
     }
 
     public long count() {
@@ -298,7 +338,7 @@ public abstract class AbstractEntityManager<K, T> {
 
     @SuppressWarnings("unchecked")
     public AsyncHandler<K, T> async() {
-        return Async.asyncHandler(AsyncHandler.class, this);
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
     }
 
     @SuppressWarnings("unchecked")
@@ -1,6 +1,7 @@
 package io.semla.persistence;
 
 import io.semla.datasource.Datasource;
+import io.semla.model.Column;
 import io.semla.query.*;
 import io.semla.util.concurrent.Async;
 
@@ -13,6 +14,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static io.semla.query.Includes.defaultRemovesOrDeleteOf;
 import static io.semla.query.Includes.of;
@@ -67,6 +69,14 @@ public class EntityManager<K, T> extends AbstractEntityManager<K, T> {
         return new Select<>(newContext(), model()).startAt(start);
     }
 
+    public Projection<T> select(String... fieldNames) {
+        return new Projection<>(newContext(), model()).select(fieldNames);
+    }
+
+    public Aggregate<T> aggregate() {
+        return new Aggregate<>(newContext(), model());
+    }
+
     public Patch<T> set(Map<String, Object> values) {
         return new Patch<>(newContext(), model()).set(values);
     }
@@ -145,6 +155,22 @@ public class EntityManager<K, T> extends AbstractEntityManager<K, T> {
         );
     }
 
+    protected List<T> list(PersistenceContext context, Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        enforceIndicesIfNeeded(predicates);
+        // partial entities are neither kept in the context nor passed to the listeners
+        return execute(() -> Query.list(predicates, pagination, columns), () -> datasource.list(predicates, pagination, columns));
+    }
+
+    protected Stream<T> stream(PersistenceContext context, Predicates<T> predicates, Pagination<T> pagination, Includes<T> includes) {
+        enforceIndicesIfNeeded(predicates);
+        logger.debug("streaming: {}", Query.list(predicates, pagination, includes));
+        // the streamed entities are not kept in the context, and their relations are fetched one entity at a time
+        return datasource.stream(predicates, pagination).map(entity -> {
+            includes.fetchOn(entity, context);
+            return invokeListener(entityManagerFactory.injector().inject(entity), PostLoad.class);
+        });
+    }
+
     protected long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
         enforceIndicesIfNeeded(predicates);
         return execute(() -> Query.patch(values, predicates, pagination), () -> datasource.patch(values, predicates, pagination));
@@ -152,8 +178,8 @@ public class EntityManager<K, T> extends AbstractEntityManager<K, T> {
 
     protected long delete(PersistenceContext context, Predicates<T> predicates, Pagination<T> pagination, Includes<T> includes) {
         enforceIndicesIfNeeded(predicates);
-        return execute(() -> Query.delete(predicates, pagination, includes), () -> {
-                model().relations().forEach(relation -> addDetachIfMissing(includes, relation));
+        model().relations().forEach(relation -> addDetachIfMissing(includes, relation));
+        return inUnitOfWork(context, includes, () -> execute(() -> Query.delete(predicates, pagination, includes), () -> {
                 if (!includes.relations().isEmpty()) {
                     List<T> entities = list(context, predicates, pagination, Includes.of(model()));
                     if (!entities.isEmpty()) {
@@ -162,7 +188,7 @@ public class EntityManager<K, T> extends AbstractEntityManager<K, T> {
                 }
                 return datasource.delete(predicates, pagination);
             }
-        );
+        ));
     }
 
     protected long count(Predicates<T> predicates) {
@@ -170,6 +196,11 @@ public class EntityManager<K, T> extends AbstractEntityManager<K, T> {
         return execute(() -> Query.count(predicates), () -> datasource.count(predicates));
     }
 
+    protected List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        enforceIndicesIfNeeded(predicates);
+        return execute(() -> Query.aggregate(predicates, aggregation), () -> datasource.aggregate(predicates, aggregation));
+    }
+
     protected void enforceIndicesIfNeeded(Predicates<T> predicates) {
         if (strictIndices) {
             predicates.enforceIndices();
@@ -179,7 +210,7 @@ public class EntityManager<K, T> extends AbstractEntityManager<K, T> {
     @Override
     @SuppressWarnings("unchecked")
     public AsyncHandler<K, T> async() {
-        return Async.asyncHandler(AsyncHandler.class, this);
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
     }
 
     public interface AsyncHandler<K, T> extends AbstractEntityManager.AsyncHandler<K, T> {
@@ -1,6 +1,7 @@
 package io.semla.persistence;
 
 import io.semla.cache.Cache;
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
 import io.semla.model.InstanceContext;
 import io.semla.query.*;
@@ -11,7 +12,9 @@ import io.semla.util.Strings;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 public class PersistenceContext {
@@ -37,6 +40,13 @@ public class PersistenceContext {
         return entityManagerFactory;
     }
 
+    /**
+     * @return the executor of the datasource of that model, on which its asynchronous queries run.
+     */
+    public ExecutorService executorOf(EntityModel<?> model) {
+        return entityManagerFactory.of(model.getType()).executor();
+    }
+
     public RelationContext relationContext() {
         return relationContext;
     }
@@ -76,6 +86,12 @@ public class PersistenceContext {
         );
     }
 
+    public <T> List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        return cachingStrategy.ifApplicable(() -> factory().injector().getInstance(Cache.class), () -> Query.aggregate(predicates, aggregation).toString(),
+            Aggregation.ROWS_TYPE, () -> entityManagerFactory.of(predicates.model().getType()).aggregate(predicates, aggregation)
+        );
+    }
+
     public <T> long count(Predicates<T> predicates) {
         return cachingStrategy.ifApplicable(() -> factory().injector().getInstance(Cache.class), () -> Query.count(predicates).toString(),
             long.class, () -> entityManagerFactory.of(predicates.model().getType()).count(predicates)
@@ -102,6 +118,10 @@ public class PersistenceContext {
         return entityManagerFactory.of(includes.model().getType()).update(this, entities, includes);
     }
 
+    public <T, CollectionType extends Collection<T>> CollectionType upsert(CollectionType entities, Includes<T> includes) {
+        return entityManagerFactory.of(includes.model().getType()).upsert(this, entities, includes);
+    }
+
     public <T> long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
         return entityManagerFactory.of(predicates.model().getType()).patch(values, predicates, pagination);
     }
@@ -126,6 +146,17 @@ public class PersistenceContext {
         );
     }
 
+    public <T> List<T> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        return cachingStrategy.ifApplicable(() -> factory().injector().getInstance(Cache.class), () -> Query.list(predicates, pagination, columns).toString(),
+            predicates.model().getListType(), () -> entityManagerFactory.of(predicates.model().getType()).list(this, predicates, pagination, columns)
+        );
+    }
+
+    public <T> Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination, Includes<T> includes) {
+        // streams bypass the cache, they are meant for result sets too large to be held at once
+        return entityManagerFactory.of(includes.model().getType()).stream(this, predicates, pagination, includes);
+    }
+
     public <ParentType, ChildType> void createOrUpdate(ChildType child, Include<ParentType, ChildType> include) {
         if (isPersisted(child)) {
             if (include.type().should(IncludeType.UPDATE)) {
@@ -145,11 +176,26 @@ public class PersistenceContext {
     }
 
     public <ParentType, ChildType> void createOrUpdate(Collection<ChildType> children, Include<ParentType, ChildType> include) {
+        if (canUpsert(children, include)) {
+            // a single statement per chunk, rather than getting all the keys first
+            upsert(children, include.includes());
+            return;
+        }
         sortPersisted(children)
             .ifLeft(persisted -> !persisted.isEmpty() && include.type().should(IncludeType.UPDATE)).then(persisted -> update(persisted, include.includes()))
             .ifRight(nonPersisted -> !nonPersisted.isEmpty() && include.type().should(IncludeType.CREATE)).then(nonPersisted -> create(nonPersisted, include.includes()));
     }
 
+    private <ParentType, ChildType> boolean canUpsert(Collection<ChildType> children, Include<ParentType, ChildType> include) {
+        EntityModel<ChildType> model = include.includes().model();
+        return !children.isEmpty()
+            && include.type().should(IncludeType.CREATE)
+            && include.type().should(IncludeType.UPDATE)
+            && entityManagerFactory.of(model.getType()).canUpsert()
+            // entities without a key still need to go through create to be rejected
+            && children.stream().noneMatch(model.key().member()::isDefaultOn);
+    }
+
     public <T> Pair<Collection<T>, Collection<T>> sortPersisted(Collection<T> entities) {
         if (entities.isEmpty()) {
             return Pair.of(Lists.empty(), Lists.empty());
@@ -128,6 +128,9 @@ public abstract class TypedEntityManager<K, T, GetType, CreateType, SetterType,
                     case "limitTo":
                         select.limitTo((int) args[0]);
                         return selectProxy;
+                    case "afterCursor":
+                        select.afterCursor((String) args[0]);
+                        return selectProxy;
                     default:
                         return invoke(select, method.getName(), args);
                 }
@@ -266,6 +269,11 @@ public abstract class TypedEntityManager<K, T, GetType, CreateType, SetterType,
             return select.list(extractIncludes(Includes::defaultEagersOf, includes)::override);
         }
 
+        @SafeVarargs
+        public final Stream<T> stream(Consumer<IncludesType>... includes) {
+            return select.stream(extractIncludes(Includes::defaultEagersOf, includes)::override);
+        }
+
         @SafeVarargs
         public final long delete(Consumer<IncludesType>... includes) {
             return select.delete(extractIncludes(Includes::defaultRemovesOrDeleteOf, includes)::override);
@@ -610,52 +618,52 @@ public abstract class TypedEntityManager<K, T, GetType, CreateType, SetterType,
                     
                         @SafeVarargs
                         public final CompletionStage<Optional<%1$s>> get(%2$s id, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.get(id, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.get(id, includes), executor());
                         }
                 
                         @SafeVarargs
                         public final CompletionStage<Map<%4$s, %1$s>> get(Collection<%4$s> ids, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.get(ids, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.get(ids, includes), executor());
                         }
                 
                         @SafeVarargs
                         public final CompletionStage<Optional<%1$s>> first(Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.first(includes));
+                            return Async.supplyBlocking(() -> %8$s.this.first(includes), executor());
                         }
                 
                         @SafeVarargs
                         public final CompletionStage<List<%1$s>> list(Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.list(includes));
+                            return Async.supplyBlocking(() -> %8$s.this.list(includes), executor());
                         }
                 
                         @SafeVarargs
                         public final CompletionStage<%1$s> create(%1$s fruit, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.create(fruit, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.create(fruit, includes), executor());
                         }
                 
                         @SafeVarargs
                         public final <CollectionType extends Collection<%1$s>> CompletionStage<CollectionType> create(CollectionType fruits, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.create(fruits, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.create(fruits, includes), executor());
                         }
                 
                         @SafeVarargs
                         public final CompletionStage<%1$s> update(%1$s fruit, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.update(fruit, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.update(fruit, includes), executor());
                         }
                 
                         @SafeVarargs
                         public final <CollectionType extends Collection<%1$s>> CompletionStage<CollectionType> update(CollectionType fruits, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.update(fruits, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.update(fruits, includes), executor());
                         }
                 
                         @SafeVarargs
                         public final CompletionStage<Boolean> delete(%2$s id, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.delete(id, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.delete(id, includes), executor());
                         }
                 
                         @SafeVarargs
                         public final CompletionStage<Long> delete(Collection<%4$s> ids, Consumer<Includes>... includes) {
-                            return Async.supplyBlocking(() -> %8$s.this.delete(ids, includes));
+                            return Async.supplyBlocking(() -> %8$s.this.delete(ids, includes), executor());
                         }
                 """.formatted(entityName, keyType, key, wrappedKeyType, keys, model.singularName(), model.pluralName(), className));
         } else {
@@ -672,11 +680,11 @@ public abstract class TypedEntityManager<K, T, GetType, CreateType, SetterType,
                     public class AsyncHandler implements AbstractEntityManager.AsyncHandler<%3$s, %1$s> {
                     
                         public final CompletionStage<Optional<%1$s>> first() {
-                            return Async.supplyBlocking(() -> %2$s.this.first());
+                            return Async.supplyBlocking(() -> %2$s.this.first(), executor());
                         }
                 
                         public final CompletionStage<List<%1$s>> list() {
-                            return Async.supplyBlocking(() -> %2$s.this.list());
+                            return Async.supplyBlocking(() -> %2$s.this.list(), executor());
                         }
                 """.formatted(entityName, className, wrappedKeyType));
         }
@@ -1072,6 +1080,8 @@ public abstract class TypedEntityManager<K, T, GetType, CreateType, SetterType,
 
                     public abstract Select limitTo(int limit);
 
+                    public abstract Select afterCursor(String cursor);
+
                     public abstract Select cached();
 
                     public abstract Select cachedFor(Duration ttl);
@@ -0,0 +1,66 @@
+package io.semla.query;
+
+import io.semla.model.EntityModel;
+import io.semla.persistence.PersistenceContext;
+import io.semla.util.concurrent.Async;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+public class Aggregate<T> extends FilteredQuery<T, Aggregate<T>> {
+
+    private final Aggregation<T> aggregation;
+
+    public Aggregate(PersistenceContext context, EntityModel<T> model) {
+        this(context, Predicates.of(model), Aggregation.of(model));
+    }
+
+    protected Aggregate(PersistenceContext context, Predicates<T> predicates, Aggregation<T> aggregation) {
+        super(context, predicates);
+        this.aggregation = aggregation;
+    }
+
+    public Aggregate<T> groupBy(String... fieldNames) {
+        aggregation.groupBy(fieldNames);
+        return this;
+    }
+
+    public Aggregate<T> sum(String... fieldNames) {
+        aggregation.sum(fieldNames);
+        return this;
+    }
+
+    public Aggregate<T> avg(String... fieldNames) {
+        aggregation.avg(fieldNames);
+        return this;
+    }
+
+    public Aggregate<T> min(String... fieldNames) {
+        aggregation.min(fieldNames);
+        return this;
+    }
+
+    public Aggregate<T> max(String... fieldNames) {
+        aggregation.max(fieldNames);
+        return this;
+    }
+
+    /**
+     * @return one row per group, ordered by the grouped fields.
+     */
+    public List<Map<String, Object>> list() {
+        return context.aggregate(predicates, aggregation);
+    }
+
+    @SuppressWarnings("unchecked")
+    public AsyncHandler<T> async() {
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
+    }
+
+    public interface AsyncHandler<T> {
+
+        CompletionStage<List<Map<String, Object>>> list();
+
+    }
+}
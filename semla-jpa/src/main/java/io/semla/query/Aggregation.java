@@ -0,0 +1,230 @@
+package io.semla.query;
+
+import io.semla.model.Column;
+import io.semla.model.EntityModel;
+import io.semla.reflect.Member;
+import io.semla.reflect.Types;
+
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The aggregates to compute over the entities, optionally grouped by some columns. Each resulting row holds the grouped fields,
+ * a {@code count} and, for each requested function, a map of the aggregated fields to their value.
+ */
+public class Aggregation<T> {
+
+    public static final Type ROWS_TYPE = Types.parameterized(List.class, Types.parameterized(Map.class, String.class, Object.class));
+
+    public enum Function {
+        sum, avg, min, max
+    }
+
+    private final EntityModel<T> model;
+    private final List<Column<T>> groupBy = new ArrayList<>();
+    private final Map<Function, Set<Column<T>>> functions = new EnumMap<>(Function.class);
+
+    protected Aggregation(EntityModel<T> model) {
+        this.model = model;
+    }
+
+    public EntityModel<T> model() {
+        return model;
+    }
+
+    public List<Column<T>> groupBy() {
+        return groupBy;
+    }
+
+    public Map<Function, Set<Column<T>>> functions() {
+        return functions;
+    }
+
+    public Aggregation<T> groupBy(String... fieldNames) {
+        Stream.of(fieldNames).map(this::columnOf).filter(column -> !groupBy.contains(column)).forEach(groupBy::add);
+        return this;
+    }
+
+    public Aggregation<T> sum(String... fieldNames) {
+        return add(Function.sum, fieldNames);
+    }
+
+    public Aggregation<T> avg(String... fieldNames) {
+        return add(Function.avg, fieldNames);
+    }
+
+    public Aggregation<T> min(String... fieldNames) {
+        return add(Function.min, fieldNames);
+    }
+
+    public Aggregation<T> max(String... fieldNames) {
+        return add(Function.max, fieldNames);
+    }
+
+    private Aggregation<T> add(Function function, String... fieldNames) {
+        for (String fieldName : fieldNames) {
+            Column<T> column = columnOf(fieldName);
+            if ((function == Function.sum || function == Function.avg) && !isNumeric(column)) {
+                throw new IllegalArgumentException("cannot compute the " + function + " of " + column.member() + ", it is not a number");
+            }
+            functions.computeIfAbsent(function, f -> new LinkedHashSet<>()).add(column);
+        }
+        return this;
+    }
+
+    private Column<T> columnOf(String fieldName) {
+        Member<T> member = model.member(fieldName);
+        Column<T> column = model.getColumn(member);
+        if (column == null) {
+            throw new IllegalArgumentException(member + " is not a column");
+        }
+        return column;
+    }
+
+    public static boolean isNumeric(Column<?> column) {
+        return Types.isAssignableTo(Types.wrap(column.member().getType()), Number.class);
+    }
+
+    public static boolean isIntegral(Column<?> column) {
+        return Types.isAssignableToOneOf(Types.wrap(column.member().getType()), Integer.class, Long.class, Short.class, Byte.class, BigInteger.class);
+    }
+
+    /**
+     * builds a row out of the values read by a datasource, with the sums and averages converted to longs or doubles.
+     */
+    public Map<String, Object> toRow(List<?> groupValues, long count, BiFunction<Function, Column<T>, Object> values) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < groupBy.size(); i++) {
+            row.put(groupBy.get(i).member().getName(), keyOrValue(groupValues.get(i)));
+        }
+        row.put("count", count);
+        functions.forEach((function, columns) -> {
+            Map<String, Object> valuesByField = new LinkedHashMap<>();
+            columns.forEach(column -> {
+                Object value = values.apply(function, column);
+                if (value != null) {
+                    value = switch (function) {
+                        case sum -> isIntegral(column) ? (Object) ((Number) value).longValue() : (Object) ((Number) value).doubleValue();
+                        case avg -> ((Number) value).doubleValue();
+                        case min, max -> keyOrValue(value);
+                    };
+                }
+                valuesByField.put(column.member().getName(), value);
+            });
+            row.put(function.name(), valuesByField);
+        });
+        return row;
+    }
+
+    private static Object keyOrValue(Object value) {
+        return EntityModel.isEntity(value) ? EntityModel.keyOf(value) : value;
+    }
+
+    /**
+     * computes the aggregates in memory, the stream can be parallel.
+     */
+    public List<Map<String, Object>> reduce(Stream<T> entities) {
+        Map<List<Object>, Accumulator> accumulators = entities.collect(Collectors.groupingBy(
+            entity -> groupBy.stream().map(column -> keyOrValue(column.member().getOn(entity))).collect(Collectors.toList()),
+            Collector.of(Accumulator::new, Accumulator::add, Accumulator::merge)
+        ));
+        if (accumulators.isEmpty() && groupBy.isEmpty()) {
+            // like in sql, there is always a row when nothing is grouped
+            accumulators = Map.of(List.of(), new Accumulator());
+        }
+        return accumulators.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey(Aggregation::compare))
+            .map(entry -> toRow(entry.getKey(), entry.getValue().count, entry.getValue()::valueOf))
+            .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(List<Object> group, List<Object> other) {
+        for (int i = 0; i < group.size(); i++) {
+            int comparison = Comparator.nullsFirst((Comparator) Comparator.naturalOrder()).compare(group.get(i), other.get(i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("count");
+        functions.forEach((function, columns) -> columns.forEach(column ->
+            builder.append(", ").append(function).append('(').append(column.member().getName()).append(')')));
+        if (!groupBy.isEmpty()) {
+            builder.append(" grouped by ").append(groupBy.stream().map(column -> column.member().getName()).collect(Collectors.joining(", ")));
+        }
+        return builder.toString();
+    }
+
+    public static <T> Aggregation<T> of(Class<T> clazz) {
+        return of(EntityModel.of(clazz));
+    }
+
+    public static <T> Aggregation<T> of(EntityModel<T> model) {
+        return new Aggregation<>(model);
+    }
+
+    private class Accumulator {
+
+        private long count;
+        private final Map<Column<T>, Number> sums = new HashMap<>();
+        private final Map<Column<T>, Long> counts = new HashMap<>();
+        private final Map<Column<T>, Comparable<Object>> mins = new HashMap<>();
+        private final Map<Column<T>, Comparable<Object>> maxs = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private void add(T entity) {
+            count++;
+            functions.forEach((function, columns) -> columns.forEach(column -> {
+                Object value = column.member().getOn(entity);
+                if (value instanceof Optional<?> optional) {
+                    value = optional.orElse(null);
+                }
+                if (value != null) {
+                    switch (function) {
+                        case sum, avg -> {
+                            // averages share the sums
+                            if (function == Function.sum || !functions.getOrDefault(Function.sum, Set.of()).contains(column)) {
+                                sums.merge(column, (Number) value, (a, b) -> add(column, a, b));
+                                counts.merge(column, 1L, Long::sum);
+                            }
+                        }
+                        case min -> mins.merge(column, (Comparable<Object>) keyOrValue(value), (a, b) -> a.compareTo(b) <= 0 ? a : b);
+                        case max -> maxs.merge(column, (Comparable<Object>) keyOrValue(value), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+                    }
+                }
+            }));
+        }
+
+        private Accumulator merge(Accumulator other) {
+            count += other.count;
+            other.sums.forEach((column, sum) -> sums.merge(column, sum, (a, b) -> add(column, a, b)));
+            other.counts.forEach((column, count) -> counts.merge(column, count, Long::sum));
+            other.mins.forEach((column, min) -> mins.merge(column, min, (a, b) -> a.compareTo(b) <= 0 ? a : b));
+            other.maxs.forEach((column, max) -> maxs.merge(column, max, (a, b) -> a.compareTo(b) >= 0 ? a : b));
+            return this;
+        }
+
+        private Number add(Column<T> column, Number a, Number b) {
+            return isIntegral(column) ? (Number) (a.longValue() + b.longValue()) : (Number) (a.doubleValue() + b.doubleValue());
+        }
+
+        private Object valueOf(Function function, Column<T> column) {
+            return switch (function) {
+                case sum -> sums.get(column);
+                case avg -> sums.containsKey(column) ? sums.get(column).doubleValue() / counts.get(column) : null;
+                case min -> mins.get(column);
+                case max -> maxs.get(column);
+            };
+        }
+    }
+}
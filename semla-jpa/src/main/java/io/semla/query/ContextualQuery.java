@@ -5,6 +5,8 @@ import io.semla.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutorService;
+
 public abstract class ContextualQuery<T> {
 
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -19,4 +21,8 @@ public abstract class ContextualQuery<T> {
     public EntityModel<T> model() {
         return model;
     }
+
+    protected ExecutorService executor() {
+        return context.executorOf(model);
+    }
 }
@@ -39,7 +39,7 @@ public class Create<T> extends ContextualQuery<T>  {
 
     @SuppressWarnings("unchecked")
     public AsyncHandler<T> async() {
-        return Async.asyncHandler(AsyncHandler.class, this);
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
     }
 
     public interface AsyncHandler<T> {
@@ -76,7 +76,7 @@ public class Get<K, T> extends ContextualQuery<T> {
 
         @SuppressWarnings("unchecked")
         public AsyncHandler<K, T> async() {
-            return Async.asyncHandler(AsyncHandler.class, this);
+            return Async.asyncHandler(AsyncHandler.class, this, executor());
         }
 
         public interface AsyncHandler<K, T> {
@@ -93,7 +93,7 @@ public class Get<K, T> extends ContextualQuery<T> {
 
     @SuppressWarnings("unchecked")
     public AsyncHandler<K, T> async() {
-        return Async.asyncHandler(AsyncHandler.class, this);
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
     }
 
     public interface AsyncHandler<K, T> {
@@ -43,6 +43,23 @@ public abstract class PaginatedQuery<T, SelfType extends PaginatedQuery<T, ?>> e
         return (SelfType) this;
     }
 
+    public SelfType after(Object... values) {
+        pagination.after(values);
+        return (SelfType) this;
+    }
+
+    public SelfType afterCursor(String cursor) {
+        pagination.afterCursor(cursor);
+        return (SelfType) this;
+    }
+
+    /**
+     * @return the cursor to pass to {@link #afterCursor(String)} to get the entities ordered after this one.
+     */
+    public String cursorOf(T entity) {
+        return pagination.cursorOf(entity);
+    }
+
     public SelfType cached() {
         context.cachingStrategy().withCache(true);
         return (SelfType) this;
@@ -3,12 +3,13 @@ package io.semla.query;
 import io.semla.exception.SemlaException;
 import io.semla.model.EntityModel;
 import io.semla.reflect.Member;
+import io.semla.serialization.json.Json;
 import io.semla.util.Splitter;
 
-import java.util.Comparator;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class Pagination<T> {
@@ -21,6 +22,7 @@ public class Pagination<T> {
     private final Map<Member<T>, Sort> sorts = new LinkedHashMap<>();
     private int start;
     private int limit = Integer.MAX_VALUE;
+    private List<Object> after;
 
     private Pagination(EntityModel<T> model) {
         this.model = model;
@@ -31,11 +33,12 @@ public class Pagination<T> {
         copy.sorts.putAll(sorts);
         copy.start = start;
         copy.limit = limit;
+        copy.after = after;
         return copy;
     }
 
     public boolean isPaginated() {
-        return start != 0 || limit < Integer.MAX_VALUE;
+        return start != 0 || limit < Integer.MAX_VALUE || after != null;
     }
 
     public Pagination<T> startAt(int start) {
@@ -82,28 +85,113 @@ public class Pagination<T> {
         return this;
     }
 
+    /**
+     * Switches to keyset pagination: only the entities ordered after these values are returned, which is what a
+     * {@code WHERE (sorted columns) > (values)} does in SQL. The values are given in the order of {@link #keyset()}. Nulls are
+     * ordered before any other value, so first when ascending and last when descending.
+     */
+    public Pagination<T> after(Object... values) {
+        return after(Arrays.asList(values));
+    }
+
+    public Pagination<T> after(List<?> values) {
+        if (values.size() != keyset().size()) {
+            throw new IllegalArgumentException("expected " + keyset().size() + " values after " + keyset().keySet() + " but got " + values);
+        }
+        if (values.get(new ArrayList<>(keyset().keySet()).indexOf(model.key().member())) == null) {
+            throw new IllegalArgumentException("cannot paginate after a null key: " + values);
+        }
+        this.after = Collections.unmodifiableList(new ArrayList<>(values));
+        return this;
+    }
+
+    /**
+     * @param cursor a token returned by {@link #cursorOf(Object)} for the same ordering.
+     */
+    public Pagination<T> afterCursor(String cursor) {
+        List<Object> values;
+        try {
+            values = Json.read(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor '" + cursor + "'", e);
+        }
+        List<Member<T>> members = new ArrayList<>(keyset().keySet());
+        if (values.size() != members.size()) {
+            throw new IllegalArgumentException("cursor '" + cursor + "' doesn't match " + members);
+        }
+        return after(IntStream.range(0, values.size())
+            .mapToObj(i -> values.get(i) != null ? Json.read(Json.write(values.get(i)), valueTypeOf(members.get(i))) : null)
+            .collect(Collectors.toList()));
+    }
+
+    public boolean isKeyset() {
+        return after != null;
+    }
+
+    /**
+     * @return the values of the keyset this pagination starts after, if any.
+     */
+    public List<Object> after() {
+        return after;
+    }
+
+    /**
+     * @return the sorts followed by the key, unless already sorted by it, so that the order of the entities is total.
+     */
+    public Map<Member<T>, Sort> keyset() {
+        Map<Member<T>, Sort> keyset = new LinkedHashMap<>(sorts);
+        keyset.putIfAbsent(model.key().member(), null);
+        return keyset;
+    }
+
+    /**
+     * @return an opaque token to pass to {@link #afterCursor(String)} to get the entities ordered after this one.
+     */
+    public String cursorOf(T entity) {
+        return cursorOf(keyset().keySet().stream().map(member -> valueOfKeyIfReference(member, entity)).collect(Collectors.toList()));
+    }
+
     public <F> int compare(T entity1, T entity2) {
+        return compare(sorts, entity1, entity2);
+    }
+
+    private <F> int compare(Map<Member<T>, Sort> sorts, T entity1, T entity2) {
         Comparator<T> comparator = (o1, o2) -> 0;
         for (Map.Entry<Member<T>, Sort> sort : sorts.entrySet()) {
-            comparator = comparator.thenComparing((a, b) -> {
-                int order = sort.getValue() == null || sort.getValue().equals(Sort.ASC) ? 1 : -1;
-                Comparable<F> value1 = valueOfKeyIfReference(sort, a);
-                F value2 = valueOfKeyIfReference(sort, b);
-                if (value1 == null && value2 == null) {
-                    return 0;
-                } else if (value1 == null) {
-                    return -1 * order;
-                } else if (value2 == null) {
-                    return order;
-                }
-                return (value1 == value2) ? 0 : value1.compareTo(value2) * order;
-            });
+            comparator = comparator.thenComparing((a, b) ->
+                compareValues(valueOfKeyIfReference(sort.getKey(), a), valueOfKeyIfReference(sort.getKey(), b), sort.getValue()));
         }
         return comparator.compare(entity1, entity2);
     }
 
+    private boolean isAfter(T entity) {
+        int i = 0;
+        for (Map.Entry<Member<T>, Sort> sort : keyset().entrySet()) {
+            int comparison = compareValues(valueOfKeyIfReference(sort.getKey(), entity), after.get(i++), sort.getValue());
+            if (comparison != 0) {
+                return comparison > 0;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <F> int compareValues(Object value1, Object value2, Sort sort) {
+        int order = sort == null || sort.equals(Sort.ASC) ? 1 : -1;
+        if (value1 == null && value2 == null) {
+            return 0;
+        } else if (value1 == null) {
+            return -1 * order;
+        } else if (value2 == null) {
+            return order;
+        }
+        return (value1 == value2) ? 0 : ((Comparable<F>) value1).compareTo((F) value2) * order;
+    }
+
     public Stream<T> paginate(Stream<T> filtered) {
-        if (this.isSorted()) {
+        if (this.isKeyset()) {
+            filtered = filtered.filter(this::isAfter).sorted((a, b) -> compare(keyset(), a, b));
+        } else if (this.isSorted()) {
             filtered = filtered.sorted(this::compare);
         }
         if (this.start() > 0) {
@@ -115,13 +203,16 @@ public class Pagination<T> {
         return filtered;
     }
 
-    @SuppressWarnings("unchecked")
-    private <F> F valueOfKeyIfReference(Map.Entry<Member<T>, Sort> sort, T a) {
-        Object value = sort.getKey().getOn(a);
+    private Object valueOfKeyIfReference(Member<T> member, T a) {
+        Object value = member.getOn(a);
         if (EntityModel.isReference(value)) {
             return EntityModel.of(value).key().member().getOn(value);
         }
-        return (F) value;
+        return value;
+    }
+
+    private Class<?> valueTypeOf(Member<T> member) {
+        return EntityModel.isEntity(member.getType()) ? EntityModel.of(member.getType()).key().member().getType() : member.getType();
     }
 
     public Pagination<T> parse(String paginationAsString) {
@@ -139,6 +230,9 @@ public class Pagination<T> {
                                     throw new SemlaException("was expecting 'at' after 'start' in '" + paginationAsString + "'");
                                 }
                                 break;
+                            case "after":
+                                afterCursor(sorts.get(++i));
+                                break;
                             case "limit":
                                 if (sorts.get(i + 1).equals("to")) {
                                     limitTo(Integer.parseInt(sorts.get(i + 2)));
@@ -176,6 +270,12 @@ public class Pagination<T> {
             });
             builder.delete(builder.length() - 2, builder.length());
         }
+        if (after != null) {
+            if (builder.length() > 0) {
+                builder.append(" ");
+            }
+            builder.append("after ").append(cursorOf(after));
+        }
         if (start > 0) {
             if (builder.length() > 0) {
                 builder.append(" ");
@@ -191,6 +291,10 @@ public class Pagination<T> {
         return builder.toString().trim();
     }
 
+    private String cursorOf(List<Object> values) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Json.write(values).getBytes(StandardCharsets.UTF_8));
+    }
+
     public static <T> Pagination<T> of(Class<T> clazz) {
         return of(EntityModel.of(clazz));
     }
@@ -43,7 +43,7 @@ public class Patch<T> extends PaginatedQuery<T, Patch<T>> {
 
     @SuppressWarnings("unchecked")
     public AsyncHandler<T> async() {
-        return Async.asyncHandler(AsyncHandler.class, this);
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
     }
 
     public interface AsyncHandler<T> {
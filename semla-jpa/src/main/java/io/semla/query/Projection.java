@@ -0,0 +1,79 @@
+package io.semla.query;
+
+import io.semla.model.Column;
+import io.semla.model.EntityModel;
+import io.semla.persistence.PersistenceContext;
+import io.semla.reflect.Member;
+import io.semla.util.concurrent.Async;
+
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * A select restricted to some columns. The entities it returns only have those columns and their key populated, they are not
+ * kept in the persistence context and none of their relations are fetched.
+ */
+public class Projection<T> extends PaginatedQuery<T, Projection<T>> {
+
+    private final Set<Column<T>> columns = new LinkedHashSet<>();
+
+    public Projection(PersistenceContext context, EntityModel<T> model) {
+        super(context, model);
+    }
+
+    protected Projection(PersistenceContext context, Predicates<T> predicates, Pagination<T> pagination) {
+        super(context, predicates, pagination);
+    }
+
+    public Projection<T> select(String... fieldNames) {
+        for (String fieldName : fieldNames) {
+            Member<T> member = model().member(fieldName);
+            Column<T> column = model().getColumn(member);
+            if (column == null) {
+                throw new IllegalArgumentException(member + " is not a column");
+            }
+            columns.add(column);
+        }
+        return this;
+    }
+
+    public Optional<T> first() {
+        return context.list(predicates, pagination.copy().limitTo(1), columns).stream().findFirst();
+    }
+
+    public List<T> list() {
+        return context.list(predicates, pagination, columns);
+    }
+
+    /**
+     * @return the key and the selected columns of each matching entity, by field name. Entities are replaced by their key.
+     */
+    public List<Map<String, Object>> rows() {
+        return list().stream().map(this::rowOf).collect(Collectors.toList());
+    }
+
+    private Map<String, Object> rowOf(T entity) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(model().key().member().getName(), model().key().member().getOn(entity));
+        columns.forEach(column -> {
+            Object value = column.member().getOn(entity);
+            row.put(column.member().getName(), EntityModel.isEntity(value) ? EntityModel.keyOf(value) : value);
+        });
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    public AsyncHandler<T> async() {
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
+    }
+
+    public interface AsyncHandler<T> {
+
+        CompletionStage<Optional<T>> first();
+
+        CompletionStage<List<T>> list();
+
+        CompletionStage<List<Map<String, Object>>> rows();
+    }
+}
@@ -1,5 +1,6 @@
 package io.semla.query;
 
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
 import io.semla.model.Model;
 import io.semla.persistence.PersistenceContext;
@@ -14,6 +15,7 @@ import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 import static io.semla.query.Includes.of;
 import static io.semla.util.Singleton.lazy;
@@ -39,7 +41,7 @@ public class Query<T, ReturnType> {
     }
 
     public CompletionStage<ReturnType> asynchronouslyIn(PersistenceContext context) {
-        return Async.supplyBlocking(() -> in(context));
+        return Async.supplyBlocking(() -> in(context), context.executorOf(model));
     }
 
     @Override
@@ -137,6 +139,16 @@ public class Query<T, ReturnType> {
             )));
     }
 
+    public static <T> Query<T, List<T>> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        return new Query<>(predicates.model(), context -> context.list(predicates, pagination, columns), lazy(() ->
+            "list the %s of all the %s%s%s".formatted(
+                columns.stream().map(column -> column.member().getName()).collect(Collectors.joining(", ")),
+                predicates.model().pluralName(),
+                Strings.prefixIfNotNullOrEmpty(" where ", predicates.toString()),
+                Strings.prefixIfNotNullOrEmpty(" ", pagination.toString())
+            )));
+    }
+
     public static <T> Query<T, Long> delete(Class<T> clazz) {
         return delete(clazz, UnaryOperator.identity());
     }
@@ -217,6 +229,16 @@ public class Query<T, ReturnType> {
         ));
     }
 
+    public static <T> Query<T, List<Map<String, Object>>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        return new Query<>(predicates.model(), context -> context.aggregate(predicates, aggregation), lazy(() ->
+            "aggregate the %s%s into %s".formatted(
+                predicates.model().pluralName(),
+                Strings.prefixIfNotNullOrEmpty(" where ", predicates.toString()),
+                aggregation
+            )
+        ));
+    }
+
     public static <T> Query<T, T> create(T entity) {
         return create(entity, Includes.defaultPersistsOrMergesOf(EntityModel.of(entity))::addTo);
     }
@@ -298,6 +320,16 @@ public class Query<T, ReturnType> {
         ));
     }
 
+    public static <T, CollectionType extends Collection<T>> Query<T, CollectionType> upsert(CollectionType entities, Includes<T> includes) {
+        EntityModel<T> model = EntityModel.of(entities);
+        return new Query<>(model, context -> context.upsert(entities, includes), lazy(() ->
+            "create or update the %s -> %s".formatted(
+                model.pluralName(),
+                Json.write(entities)
+            )
+        ));
+    }
+
     public static <T> Query<T, Long> patch(Values<T> values, UnaryOperator<Predicates<T>> predicates) {
         return patch(values, predicates, UnaryOperator.identity());
     }
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static io.semla.query.Includes.defaultEagersOf;
 import static io.semla.query.Includes.of;
@@ -35,6 +36,17 @@ public class Select<T> extends PaginatedQuery<T, Select<T>> {
         return context.list(predicates, pagination, include.apply(of(model())));
     }
 
+    /**
+     * @return a lazy stream of the matching entities, to be closed once consumed so that the underlying cursor is released.
+     */
+    public Stream<T> stream() {
+        return stream(defaultEagersOf(model())::addTo);
+    }
+
+    public Stream<T> stream(UnaryOperator<Includes<T>> include) {
+        return context.stream(predicates, pagination, include.apply(of(model())));
+    }
+
     public long count() {
         return context.count(predicates);
     }
@@ -52,6 +64,17 @@ public class Select<T> extends PaginatedQuery<T, Select<T>> {
         return context.delete(predicates, pagination, includes.apply(of(model)));
     }
 
+    /**
+     * @return a projection of this select to those fields and the key.
+     */
+    public Projection<T> select(String... fieldNames) {
+        return new Projection<>(context, predicates, pagination).select(fieldNames);
+    }
+
+    public Aggregate<T> aggregate() {
+        return new Aggregate<>(context, predicates, Aggregation.of(model));
+    }
+
     public Patch<T> set(String fieldName, Object value) {
         return new Patch<>(context, predicates, pagination, new Values<>(model)).set(fieldName, value);
     }
@@ -84,7 +107,7 @@ public class Select<T> extends PaginatedQuery<T, Select<T>> {
 
         @SuppressWarnings("unchecked")
         public AsyncHandler<T> async() {
-            return Async.asyncHandler(AsyncHandler.class, this);
+            return Async.asyncHandler(AsyncHandler.class, this, executor());
         }
 
         public interface AsyncHandler<T> {
@@ -103,7 +126,7 @@ public class Select<T> extends PaginatedQuery<T, Select<T>> {
 
     @SuppressWarnings("unchecked")
     public AsyncHandler<T> async() {
-        return Async.asyncHandler(AsyncHandler.class, this);
+        return Async.asyncHandler(AsyncHandler.class, this, executor());
     }
 
     public interface AsyncHandler<T> {
@@ -8,6 +8,7 @@ import org.junit.Test;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -49,4 +50,19 @@ public class CachedDatasourceTest extends CompositeDatasourceTest<CachedDatasour
         assertThat(datasource1.get(player.id).isPresent(), is(false));
         assertThat(datasource2.count(Predicates.of(Player.class).where("id").is(player.id)), is(0L));
     }
+
+    @Test
+    public void aFailedUnitOfWorkEvictsWhatItCached() {
+        players.create(Player.with(4, "tim", 12));
+        assertThatThrownBy(() -> players.unitOfWork(() -> {
+            players.create(Player.with(5, "tom", 13));
+            players.update(Player.with(4, "tim", 14));
+            throw new IllegalStateException("rolled back");
+        })).hasMessage("rolled back");
+
+        assertThat(datasource1.get(4).isPresent(), is(false));
+        assertThat(datasource1.get(5).isPresent(), is(false));
+        // entities cached outside of the failed unit of work are kept
+        assertThat(datasource1.get(1).isPresent(), is(true));
+    }
 }
@@ -4,6 +4,7 @@ import com.decathlon.tzatziki.steps.EntitySteps;
 import io.semla.model.Player;
 import io.semla.model.VersionedEntity;
 import io.semla.model.VersionedEntityManager;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
@@ -16,9 +17,14 @@ import org.junit.Test;
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
 import javax.persistence.OptimisticLockException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -54,6 +60,23 @@ public class DatasourceTest {
             .hasMessage("entity 'player' with key '4' doesn't exist!");
     }
 
+    @Test
+    public void upsert() {
+        players.upsert(List.of(Player.with(1, "bob", 150), Player.with(4, "rak", 1000)));
+        assertThat(players.count()).isEqualTo(4L);
+        assertThat(players.get(1).get().score).isEqualTo(150);
+        assertThat(players.get(4).get().name).isEqualTo("rak");
+    }
+
+    @Test
+    public void batchUpdate() {
+        assertThatThrownBy(() -> players.update(List.of(Player.with(1, "bob", 150), Player.with(4, "rak", 1000))))
+            .isInstanceOf(EntityNotFoundException.class);
+        players.update(List.of(Player.with(1, "bob", 150), Player.with(2, "tom", 250)));
+        assertThat(players.get(1).get().score).isEqualTo(150);
+        assertThat(players.get(2).get().score).isEqualTo(250);
+    }
+
     @Test
     public void first() {
         assertThat(players.first().get().id).isEqualTo(1);
@@ -65,6 +88,26 @@ public class DatasourceTest {
         assertThat(players.list(Predicates.of(Player.class).where("name").contains("o")).size()).isEqualTo(2);
     }
 
+    @Test
+    public void stream() {
+        try (Stream<Player> stream = players.stream(Predicates.of(Player.class).where("score").greaterOrEquals(200))) {
+            assertThat(stream.map(player -> player.name).sorted().collect(Collectors.toList())).containsExactly("lea", "tom");
+        }
+        try (Stream<Player> stream = players.stream(Predicates.of(Player.class),
+            Pagination.of(Player.class).orderedBy("score", Pagination.Sort.DESC).startAt(1).limitTo(1))) {
+            assertThat(stream.map(player -> player.score).collect(Collectors.toList())).containsExactly(200);
+        }
+    }
+
+    @Test
+    public void projection() {
+        List<Player> list = players.list(Predicates.of(Player.class).where("score").greaterThan(100),
+            Pagination.of(Player.class).orderedBy("score"), List.of(players.model().getColumn(players.model().member("name"))));
+        assertThat(list).extracting(player -> player.id).containsExactly(2, 3);
+        assertThat(list).extracting(player -> player.name).containsExactly("tom", "lea");
+        assertThat(list).extracting(player -> player.score).containsOnly(0);
+    }
+
     @Test
     public void patch() {
         assertThat(players.patch(
@@ -96,6 +139,23 @@ public class DatasourceTest {
         assertThat(players.count(Predicates.of(Player.class).where("name").notLike("%o%"))).isEqualTo(1L);
     }
 
+    @Test
+    public void aggregate() {
+        assertThat(players.aggregate(Predicates.of(Player.class), Aggregation.of(Player.class).sum("score").avg("score").min("name").max("score")))
+            .containsExactly(Map.of("count", 3L, "sum", Map.of("score", 700L), "avg", Map.of("score", 700 / 3d),
+                "min", Map.of("name", "bob"), "max", Map.of("score", 400)));
+        players.create(Player.with(4, "rak", 200));
+        assertThat(players.aggregate(Predicates.of(Player.class).where("id").greaterThan(1), Aggregation.of(Player.class).groupBy("score").sum("id").min("name")))
+            .containsExactly(
+                Map.of("score", 200, "count", 2L, "sum", Map.of("id", 6L), "min", Map.of("name", "rak")),
+                Map.of("score", 400, "count", 1L, "sum", Map.of("id", 3L), "min", Map.of("name", "lea"))
+            );
+        Map<String, Object> nothing = new LinkedHashMap<>();
+        nothing.put("score", null);
+        assertThat(players.aggregate(Predicates.of(Player.class).where("id").is(5), Aggregation.of(Player.class).sum("score")))
+            .containsExactly(Map.of("count", 0L, "sum", nothing));
+    }
+
     @Test
     public void ordered() {
         List<Player> list = players.list(Pagination.of(Player.class).orderedBy("name"));
@@ -119,6 +179,45 @@ public class DatasourceTest {
         Assertions.assertThat(player.get().score).isEqualTo(200);
     }
 
+    @Test
+    public void keyset() {
+        players.create(Player.with(4, "rak", 200));
+        assertThat(players.list(Pagination.of(Player.class).limitTo(2).after(1)))
+            .extracting(player -> player.id).containsExactly(2, 3);
+        assertThat(players.list(Pagination.of(Player.class).orderedBy("score").after(200, 2)))
+            .extracting(player -> player.id).containsExactly(4, 3);
+        assertThat(players.list(Pagination.of(Player.class).orderedBy("score", Pagination.Sort.DESC).after(200, 2)))
+            .extracting(player -> player.id).containsExactly(4, 1);
+        assertThat(players.list(Predicates.of(Player.class).where("score").lessThan(400),
+            Pagination.of(Player.class).orderedBy("score", Pagination.Sort.DESC).orderedBy("id", Pagination.Sort.DESC).after(200, 4)))
+            .extracting(player -> player.id).containsExactly(2, 1);
+    }
+
+    @Test
+    public void keysetWithNulls() {
+        players.create(Player.with(4, null, 300));
+        players.create(Player.with(5, null, 50));
+        // nulls are ordered first, the ties by key so that the first page is ordered like the next ones
+        assertThat(pagesOf(Pagination.of(Player.class).orderedBy("name").orderedBy("id"))).containsExactly(4, 5, 1, 3, 2);
+        assertThat(pagesOf(Pagination.of(Player.class).orderedBy("name", Pagination.Sort.DESC).orderedBy("id"))).containsExactly(2, 3, 1, 4, 5);
+        assertThat(pagesOf(Pagination.of(Player.class).orderedBy("name", Pagination.Sort.DESC).orderedBy("id", Pagination.Sort.DESC)))
+            .containsExactly(2, 3, 1, 5, 4);
+        assertThat(players.list(Pagination.of(Player.class).orderedBy("name").after(null, 4)))
+            .extracting(player -> player.id).containsExactly(5, 1, 3, 2);
+        assertThat(players.list(Pagination.of(Player.class).orderedBy("name", Pagination.Sort.DESC).after(null, 4)))
+            .extracting(player -> player.id).containsExactly(5);
+    }
+
+    private List<Integer> pagesOf(Pagination<Player> pagination) {
+        List<Integer> ids = new ArrayList<>();
+        List<Player> page = players.list(pagination.copy().limitTo(2));
+        while (!page.isEmpty()) {
+            page.forEach(player -> ids.add(player.id));
+            page = players.list(pagination.copy().limitTo(2).afterCursor(pagination.cursorOf(page.get(page.size() - 1))));
+        }
+        return ids;
+    }
+
     @Test
     public void versioned() {
         VersionedEntityManager versionedEntities = EntitySteps.getInstance(VersionedEntityManager.class);
@@ -0,0 +1,108 @@
+package io.semla.datasource;
+
+import io.semla.model.EntityModel;
+import io.semla.persistence.annotations.Indexed;
+import io.semla.query.Pagination;
+import io.semla.query.Predicates;
+import io.semla.query.Values;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryDatasourceTest {
+
+    private InMemoryDatasource<Measure> measures;
+
+    @Before
+    public void before() {
+        measures = new InMemoryDatasource<>(EntityModel.of(Measure.class));
+        Random random = new Random(42);
+        IntStream.range(0, 500).forEach(i -> measures.create(Measure.with(i, "name" + random.nextInt(20), random.nextInt(50))));
+    }
+
+    @Test
+    public void indexedQueriesReturnWhatAScanWould() {
+        assertSameAsScan(Predicates.of(Measure.class).where("name").is("name3"), Pagination.of(Measure.class));
+        assertSameAsScan(Predicates.of(Measure.class).where("name").in("name3", "name7"), Pagination.of(Measure.class).startAt(5).limitTo(10));
+        assertSameAsScan(Predicates.of(Measure.class).where("value").is(12), Pagination.of(Measure.class));
+        assertSameAsScan(Predicates.of(Measure.class).where("value").greaterOrEquals(40).and("name").is("name1"), Pagination.of(Measure.class));
+        assertSameAsScan(Predicates.of(Measure.class).where("value").lessThan(10), Pagination.of(Measure.class).orderedBy("name"));
+        assertSameAsScan(Predicates.of(Measure.class).where("value").greaterThan(10).and("value").lessOrEquals(20), Pagination.of(Measure.class));
+        assertSameAsScan(Predicates.of(Measure.class).where("id").in(3, 5, 700), Pagination.of(Measure.class));
+        assertSameAsScan(Predicates.of(Measure.class), Pagination.of(Measure.class).orderedBy("value").startAt(20).limitTo(50));
+        assertSameAsScan(Predicates.of(Measure.class), Pagination.of(Measure.class).orderedBy("value", Pagination.Sort.DESC));
+        assertSameAsScan(Predicates.of(Measure.class).where("value").lessThan(25), Pagination.of(Measure.class).orderedBy("value", Pagination.Sort.DESC));
+        assertSameAsScan(Predicates.of(Measure.class).where("name").is("name5"), Pagination.of(Measure.class).orderedBy("value"));
+    }
+
+    @Test
+    public void nullsAreOrderedLikeAScanWould() {
+        measures.create(Measure.with(1000, "null1", null));
+        measures.create(Measure.with(1001, "null2", null));
+        assertSameAsScan(Predicates.of(Measure.class), Pagination.of(Measure.class).orderedBy("value").limitTo(5));
+        assertSameAsScan(Predicates.of(Measure.class), Pagination.of(Measure.class).orderedBy("value", Pagination.Sort.DESC));
+    }
+
+    @Test
+    public void indicesFollowTheWrites() {
+        Measure measure = measures.get(1).get();
+        measure.value = 1000;
+        measure.name = "updated";
+        measures.update(measure);
+        assertThat(ids(Predicates.of(Measure.class).where("value").is(1000))).containsExactly(1);
+        assertThat(ids(Predicates.of(Measure.class).where("name").is("updated"))).containsExactly(1);
+
+        assertThat(measures.patch(Values.of(Measure.class).with("value", 2000), Predicates.of(Measure.class).where("name").is("updated"))).isEqualTo(1);
+        assertThat(ids(Predicates.of(Measure.class).where("value").is(1000))).isEmpty();
+        assertThat(ids(Predicates.of(Measure.class).where("value").greaterThan(1000))).containsExactly(1);
+
+        measures.delete(1);
+        assertThat(ids(Predicates.of(Measure.class).where("value").is(2000))).isEmpty();
+        measures.delete(Predicates.of(Measure.class).where("value").lessThan(25));
+        assertThat(measures.count(Predicates.of(Measure.class).where("value").lessThan(25))).isZero();
+        assertSameAsScan(Predicates.of(Measure.class), Pagination.of(Measure.class).orderedBy("value"));
+
+        measures.create(Measure.with(1, "created", 1));
+        assertThat(ids(Predicates.of(Measure.class).where("value").lessThan(25))).containsExactly(1);
+        assertThat(measures.first(Predicates.of(Measure.class), Pagination.of(Measure.class).orderedBy("value", Pagination.Sort.DESC)).get().value).isEqualTo(49);
+    }
+
+    private void assertSameAsScan(Predicates<Measure> predicates, Pagination<Measure> pagination) {
+        List<Integer> scanned = pagination.paginate(predicates.filter(measures.raw().values())).map(measure -> measure.id).collect(Collectors.toList());
+        assertThat(measures.list(predicates, pagination)).extracting(measure -> measure.id).containsExactlyElementsOf(scanned);
+        assertThat(measures.count(predicates)).isEqualTo(predicates.filter(measures.raw().values()).count());
+    }
+
+    private List<Integer> ids(Predicates<Measure> predicates) {
+        return measures.list(predicates).stream().map(measure -> measure.id).collect(Collectors.toList());
+    }
+
+    @Entity
+    public static class Measure {
+
+        @Id
+        public int id;
+
+        @Indexed
+        public String name;
+
+        @Indexed
+        public Integer value;
+
+        public static Measure with(int id, String name, Integer value) {
+            Measure measure = new Measure();
+            measure.id = id;
+            measure.name = name;
+            measure.value = value;
+            return measure;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.semla.datasource;
+
+import io.semla.model.EntityModel;
+import io.semla.model.Player;
+import io.semla.reflect.Types;
+import io.semla.serialization.yaml.Yaml;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteBehindDatasourceConfigurationTest {
+
+    static {
+        Types.registerSubTypes(InMemoryDatasource.Configuration.class, WriteBehindDatasource.Configuration.class);
+    }
+
+    @Test
+    public void create() {
+        EntityModel<Player> model = EntityModel.of(Player.class);
+        WriteBehindDatasource.Configuration config = WriteBehindDatasource.configure()
+            .withDatasource(InMemoryDatasource.configure())
+            .withFlushSize(500);
+        assertThat(config.datasource()).isNotNull();
+        assertThat(config.queueSize()).isEqualTo(WriteBehindDatasource.DEFAULT_QUEUE_SIZE);
+        WriteBehindDatasource<Player> datasource = config.create(model);
+        assertThat(datasource).isNotNull();
+        datasource.create(Player.with(1, "bob", 100));
+        config.close();
+        assertThat(datasource.queued()).isZero();
+        assertThat(datasource.raw().get(1)).isPresent();
+    }
+
+    @Test
+    public void parse() {
+        EntityModel<Player> model = EntityModel.of(Player.class);
+        Datasource<Player> datasource = Yaml.read("" +
+                "type: write-behind\n" +
+                "queueSize: 5000\n" +
+                "flushSize: 500\n" +
+                "flushInterval: 200\n" +
+                "datasource:\n" +
+                "  type: in-memory\n",
+            Datasource.Configuration.class).create(model);
+        assertThat(datasource).isNotNull();
+        assertThat(datasource).isInstanceOf(WriteBehindDatasource.class);
+    }
+}
@@ -0,0 +1,164 @@
+package io.semla.datasource;
+
+import io.semla.datasource.WriteBehindDatasource.Write;
+import io.semla.model.EntityModel;
+import io.semla.model.Player;
+import io.semla.query.Predicates;
+import org.junit.Test;
+
+import javax.persistence.EntityExistsException;
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static io.semla.util.Unchecked.unchecked;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class WriteBehindDatasourceTest {
+
+    private final InMemoryDatasource<Player> datasource = new InMemoryDatasource<>(EntityModel.of(Player.class));
+    private final List<List<Write<Player>>> flushed = new CopyOnWriteArrayList<>();
+    private final List<List<Write<Player>>> failed = new CopyOnWriteArrayList<>();
+    private final List<Throwable> failures = new CopyOnWriteArrayList<>();
+    private final WriteBehindDatasource<Player> players = new WriteBehindDatasource<>(EntityModel.of(Player.class), datasource)
+        .withFlushInterval(TimeUnit.MINUTES.toMillis(1))
+        .withListener(new WriteBehindDatasource.Listener<>() {
+            @Override
+            public void flushed(List<Write<Player>> writes) {
+                flushed.add(writes);
+            }
+
+            @Override
+            public void failed(List<Write<Player>> writes, Throwable cause) {
+                failed.add(writes);
+                failures.add(cause);
+            }
+        });
+
+    @Test
+    public void writesAreCoalescedPerKey() {
+        players.create(List.of(Player.with(1, "bob", 100), Player.with(2, "tom", 200), Player.with(3, "lea", 400)));
+        players.update(Player.with(1, "bob", 150));
+        players.update(Player.with(1, "bob", 175));
+        players.delete(2);
+        assertThat(players.queued()).isEqualTo(3);
+        assertThat(datasource.count()).isZero();
+
+        // reads by key see the queued writes
+        assertThat(players.get(1)).hasValueSatisfying(player -> assertThat(player.score).isEqualTo(175));
+        assertThat(players.get(2)).isEmpty();
+        Map<Integer, Player> byKey = players.get(List.of(3, 2, 4));
+        assertThat(byKey).containsOnlyKeys(3, 2, 4);
+        assertThat(byKey.get(3).name).isEqualTo("lea");
+        assertThat(byKey.get(2)).isNull();
+
+        players.flush();
+        assertThat(players.queued()).isZero();
+        assertThat(flushed).hasSize(2);
+        assertThat(flushed.get(0)).extracting(Write::type, Write::key).containsExactly(tuple(Write.Type.CREATE, 1), tuple(Write.Type.CREATE, 3));
+        assertThat(flushed.get(1)).extracting(Write::type).containsExactly(Write.Type.DELETE);
+        assertThat(datasource.get(1)).hasValueSatisfying(player -> assertThat(player.score).isEqualTo(175));
+        assertThat(datasource.get(2)).isEmpty();
+
+        // a create after a delete becomes an upsert
+        players.delete(1);
+        players.create(Player.with(1, "bob", 50));
+        players.flush();
+        assertThat(flushed.get(2)).extracting(Write::type).containsExactly(Write.Type.UPSERT);
+        assertThat(datasource.get(1)).hasValueSatisfying(player -> assertThat(player.score).isEqualTo(50));
+
+        // an update after a delete is refused, as the datasource would
+        players.delete(3);
+        assertThatThrownBy(() -> players.update(Player.with(3, "lea", 500))).isInstanceOf(EntityNotFoundException.class);
+        assertThat(players.get(3)).isEmpty();
+        players.flush();
+        assertThat(datasource.get(3)).isEmpty();
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    public void queriesFlushTheQueueFirst() {
+        players.create(List.of(Player.with(1, "bob", 100), Player.with(2, "tom", 200)));
+        assertThat(players.count(Predicates.of(Player.class).where("score").greaterThan(150))).isEqualTo(1L);
+        assertThat(players.queued()).isZero();
+        assertThat(datasource.count()).isEqualTo(2L);
+    }
+
+    @Test
+    public void theQueueIsFlushedOnSizeAndOnTime() {
+        players.withFlushSize(2);
+        players.create(Player.with(1, "bob", 100));
+        assertThat(datasource.count()).isZero();
+        players.create(Player.with(2, "tom", 200));
+        await(() -> datasource.count() == 2);
+
+        players.withFlushSize(1000).withFlushInterval(10);
+        players.create(Player.with(3, "lea", 400));
+        await(() -> datasource.count() == 3);
+    }
+
+    @Test
+    public void theWriterFillingTheQueueFlushesIt() {
+        players.withQueueSize(2);
+        players.create(Player.with(1, "bob", 100));
+        players.update(Player.with(1, "bob", 150));
+        assertThat(datasource.count()).isZero();
+        players.create(Player.with(2, "tom", 200));
+        assertThat(players.queued()).isZero();
+        assertThat(datasource.count()).isEqualTo(2L);
+    }
+
+    @Test
+    public void failuresArePassedToTheListener() {
+        players.update(Player.with(1, "bob", 100));
+        players.flush();
+        assertThat(flushed).isEmpty();
+        assertThat(failures).hasSize(1).first().isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    public void onlyTheWritesFailingOnTheirOwnAreReported() {
+        datasource.create(Player.with(1, "bob", 100));
+        players.update(List.of(Player.with(1, "bob", 150), Player.with(2, "tom", 200)));
+        players.flush();
+        assertThat(flushed).hasSize(1).first().asList().extracting("key").containsExactly(1);
+        assertThat(failed).hasSize(1).first().asList().extracting("key").containsExactly(2);
+        assertThat(datasource.get(1)).hasValueSatisfying(player -> assertThat(player.score).isEqualTo(150));
+    }
+
+    @Test
+    public void creatingAPendingKeyIsRefused() {
+        players.create(Player.with(1, "bob", 100));
+        assertThatThrownBy(() -> players.create(Player.with(1, "tom", 200))).isInstanceOf(EntityExistsException.class);
+        players.update(Player.with(1, "bob", 150));
+        assertThatThrownBy(() -> players.create(Player.with(1, "tom", 200))).isInstanceOf(EntityExistsException.class);
+        players.flush();
+        assertThat(datasource.get(1)).hasValueSatisfying(player -> assertThat(player.score).isEqualTo(150));
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    public void deletesOnlyCountExistingEntities() {
+        datasource.create(Player.with(1, "bob", 100));
+        players.create(Player.with(2, "tom", 200));
+        assertThat(players.delete(3)).isFalse();
+        assertThat(players.delete(List.of(1, 2, 3))).isEqualTo(2L);
+        assertThat(players.delete(1)).isFalse();
+        assertThat(players.queued()).isEqualTo(2);
+        players.flush();
+        assertThat(datasource.count()).isZero();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            unchecked(() -> TimeUnit.MILLISECONDS.sleep(5));
+        }
+    }
+}
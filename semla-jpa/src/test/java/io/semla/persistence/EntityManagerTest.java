@@ -23,6 +23,7 @@ import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 public class EntityManagerTest {
 
@@ -245,6 +246,25 @@ public class EntityManagerTest {
     }
 
 
+    @Test
+    public void select() {
+        assertThat(players.select("name").where("score").greaterThan(9001).orderedBy("score", Pagination.Sort.DESC).list())
+            .extracting(player -> player.id, player -> player.name, player -> player.score)
+            .containsExactly(tuple(3, "test3", 0), tuple(2, "test2", 0));
+        assertThat(players.where("id").is(1).select("score").first().get().name).isNull();
+        assertThat(players.select("name", "score").orderedBy("id").limitTo(1).rows())
+            .containsExactly(ImmutableMap.of("id", 1, "name", "test", "score", 9001));
+        assertThatThrownBy(() -> players.select("rank"))
+            .hasMessage("io.semla.model.Player doesn't have any member named 'rank'");
+    }
+
+    @Test
+    public void async_select() {
+        players.select("name").where("id").is(2).async().first()
+            .thenAccept(player -> assertThat(player.get().name).isEqualTo("test2"))
+            .toCompletableFuture().join();
+    }
+
     @Test
     public void indexed() {
         EntityManager<UUID, IndexedUser> indexedUsers = EntitySteps.entityManagerOf(IndexedUser.class);
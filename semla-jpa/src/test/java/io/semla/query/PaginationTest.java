@@ -6,6 +6,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -25,6 +26,26 @@ public class PaginationTest {
         assertEquals(Pagination.of(Player.class).limitTo(1), "limit to 1");
     }
 
+    @Test
+    public void keyset() {
+        Pagination<Player> pagination = Pagination.of(Player.class).orderedBy("score", Pagination.Sort.DESC).limitTo(2);
+        assertThat(pagination.keyset().keySet()).extracting("name").containsExactly("score", "id");
+        String cursor = pagination.cursorOf(Player.with(3, "lea", 400));
+        assertThat(pagination.copy().afterCursor(cursor).after()).containsExactly(400, 3);
+        assertEquals(pagination.after(400, 3), "ordered by score desc after " + cursor + " limit to 2");
+        assertThat(pagination.paginate(Stream.of(Player.with(1, "bob", 100), Player.with(2, "tom", 200), Player.with(4, "rak", 400), Player.with(3, "lea", 400)))
+            .map(player -> player.id).collect(Collectors.toList())).containsExactly(4, 2);
+        assertThatThrownBy(() -> Pagination.of(Player.class).after(1, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Pagination.of(Player.class).afterCursor("not a cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        Pagination<Player> byName = Pagination.of(Player.class).orderedBy("name");
+        assertThat(byName.copy().afterCursor(byName.cursorOf(Player.with(3, null, 400))).after()).containsExactly(null, 3);
+        assertThatThrownBy(() -> byName.copy().after("lea", null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     private void assertEquals(Pagination<Player> pagination, String query) {
         assertThat(pagination.toString()).isEqualTo(query);
         assertThat(Pagination.of(Player.class).parse(query).toString()).isEqualTo(query);
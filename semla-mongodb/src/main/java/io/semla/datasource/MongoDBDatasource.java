@@ -4,13 +4,18 @@ import com.mongodb.MongoClient;
 import com.mongodb.MongoWriteException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BsonField;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.lang.NonNull;
 import io.semla.model.Column;
 import io.semla.model.EntityModel;
+import io.semla.query.Aggregation;
 import io.semla.query.Pagination;
 import io.semla.query.Predicate;
 import io.semla.query.Predicates;
@@ -42,8 +47,11 @@ import java.math.BigInteger;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Filters.*;
+import static com.mongodb.client.model.Projections.include;
 import static com.mongodb.client.model.Sorts.*;
 import static com.mongodb.client.model.Updates.*;
 import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
@@ -177,12 +185,28 @@ public class MongoDBDatasource<T> extends Datasource<T> {
 
     @Override
     public Optional<T> first(Predicates<T> predicates, Pagination<T> pagination) {
-        return Optional.ofNullable(paginate(collection.find(toBson(predicates)), pagination).first()).map(this::fromDocument);
+        return Optional.ofNullable(paginate(collection.find(toBson(predicates, pagination)), pagination).first()).map(this::fromDocument);
     }
 
     @Override
     public List<T> list(Predicates<T> predicates, Pagination<T> pagination) {
-        return paginate(collection.find(toBson(predicates)), pagination).map(this::fromDocument).into(new ArrayList<>());
+        return paginate(collection.find(toBson(predicates, pagination)), pagination).map(this::fromDocument).into(new ArrayList<>());
+    }
+
+    @Override
+    public List<T> list(Predicates<T> predicates, Pagination<T> pagination, Collection<Column<T>> columns) {
+        // the _id is always returned
+        Bson projection = include(columns.stream().map(column -> getFieldName(column.member())).collect(Collectors.toList()));
+        return paginate(collection.find(toBson(predicates, pagination)).projection(projection), pagination)
+            .map(this::fromDocument).into(new ArrayList<>());
+    }
+
+    @Override
+    public Stream<T> stream(Predicates<T> predicates, Pagination<T> pagination) {
+        MongoCursor<Document> cursor = paginate(collection.find(toBson(predicates, pagination)), pagination).iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .map(this::fromDocument)
+            .onClose(cursor::close);
     }
 
     @Override
@@ -213,6 +237,55 @@ public class MongoDBDatasource<T> extends Datasource<T> {
         return collection.countDocuments(toBson(predicates));
     }
 
+    @Override
+    public List<Map<String, Object>> aggregate(Predicates<T> predicates, Aggregation<T> aggregation) {
+        Map<String, Setter<T>> setters = Properties.settersOf(model().getType());
+        Document groups = null;
+        if (!aggregation.groupBy().isEmpty()) {
+            groups = new Document();
+            for (int i = 0; i < aggregation.groupBy().size(); i++) {
+                groups.put("group" + i, "$" + getFieldName(aggregation.groupBy().get(i).member()));
+            }
+        }
+        List<BsonField> accumulators = new ArrayList<>();
+        accumulators.add(Accumulators.sum("count", 1));
+        aggregation.functions().forEach((function, columns) -> columns.forEach(column -> {
+            String alias = function + "_" + column.member().getName();
+            String field = "$" + getFieldName(column.member());
+            accumulators.add(switch (function) {
+                case sum -> Accumulators.sum(alias, field);
+                case avg -> Accumulators.avg(alias, field);
+                case min -> Accumulators.min(alias, field);
+                case max -> Accumulators.max(alias, field);
+            });
+        }));
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(Aggregates.match(toBson(predicates)));
+        pipeline.add(Aggregates.group(groups, accumulators));
+        if (groups != null) {
+            pipeline.add(Aggregates.sort(ascending("_id")));
+        }
+        List<Map<String, Object>> rows = collection.aggregate(pipeline).map(document -> {
+            Document group = document.get("_id", Document.class);
+            List<Object> groupValues = new ArrayList<>();
+            for (int i = 0; i < aggregation.groupBy().size(); i++) {
+                groupValues.add(deserializeValue(group.get("group" + i), setters.get(aggregation.groupBy().get(i).member().getName())));
+            }
+            return aggregation.toRow(groupValues, ((Number) document.get("count")).longValue(), (function, column) -> {
+                Object value = document.get(function + "_" + column.member().getName());
+                return switch (function) {
+                    case sum, avg -> value;
+                    case min, max -> deserializeValue(value, setters.get(column.member().getName()));
+                };
+            });
+        }).into(new ArrayList<>());
+        if (rows.isEmpty() && groups == null) {
+            // like in sql, there is always a row when nothing is grouped
+            rows.add(aggregation.toRow(List.of(), 0, (function, column) -> null));
+        }
+        return rows;
+    }
+
     @NonNull
     private T fromDocument(Document document) {
         T entity = model().newInstance();
@@ -322,6 +395,42 @@ public class MongoDBDatasource<T> extends Datasource<T> {
         }).reduce(new BsonDocument(), Filters::and);
     }
 
+    private Bson toBson(Predicates<T> predicates, Pagination<T> pagination) {
+        Bson filter = toBson(predicates);
+        if (pagination.isKeyset()) {
+            // (a > x) OR (a = x AND b > y) ..., nulls being ordered first like mongo sorts them
+            List<Member<T>> members = new ArrayList<>(pagination.keyset().keySet());
+            List<Object> after = pagination.after();
+            List<Bson> alternatives = new ArrayList<>();
+            for (int i = 0; i < members.size(); i++) {
+                boolean descending = pagination.keyset().get(members.get(i)) == Pagination.Sort.DESC;
+                if (after.get(i) == null && descending) {
+                    // nothing is ordered after a null
+                    continue;
+                }
+                List<Bson> conditions = new ArrayList<>();
+                for (int j = 0; j < i; j++) {
+                    conditions.add(eq(getFieldName(members.get(j)), after.get(j) != null ? keysetValue(members.get(j), after.get(j)) : null));
+                }
+                String fieldName = getFieldName(members.get(i));
+                if (after.get(i) == null) {
+                    conditions.add(ne(fieldName, null));
+                } else {
+                    Object value = keysetValue(members.get(i), after.get(i));
+                    conditions.add(descending ? or(lt(fieldName, value), eq(fieldName, null)) : gt(fieldName, value));
+                }
+                alternatives.add(and(conditions));
+            }
+            filter = and(filter, or(alternatives));
+        }
+        return filter;
+    }
+
+    private Object keysetValue(Member<T> member, Object value) {
+        // references are already given by their keys
+        return EntityModel.isEntity(member.getType()) ? value : serializeValue(model().getColumn(member), value);
+    }
+
     private FindIterable<Document> paginate(FindIterable<Document> query, Pagination<T> pagination) {
         if (pagination.start() > 0) {
             query.skip(pagination.start());
@@ -329,8 +438,8 @@ public class MongoDBDatasource<T> extends Datasource<T> {
         if (pagination.limit() != Integer.MAX_VALUE) {
             query.limit(pagination.limit());
         }
-        if (pagination.isSorted()) {
-            query.sort(orderBy(pagination.sort().entrySet().stream().map(sort -> {
+        if (pagination.isSorted() || pagination.isKeyset()) {
+            query.sort(orderBy((pagination.isKeyset() ? pagination.keyset() : pagination.sort()).entrySet().stream().map(sort -> {
                 String fieldName = getFieldName(sort.getKey());
                 if (sort.getValue() == null || sort.getValue() == Pagination.Sort.ASC) {
                     return ascending(fieldName);
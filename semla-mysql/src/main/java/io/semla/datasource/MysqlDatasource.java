@@ -1,13 +1,22 @@
 package io.semla.datasource;
 
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
 import io.semla.serialization.annotations.TypeName;
+import io.semla.util.Lists;
+import io.semla.util.Singleton;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Update;
 
 import javax.persistence.GeneratedValue;
-import java.util.Map;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static io.semla.query.Predicate.is;
 import static io.semla.query.Predicate.not;
@@ -17,6 +26,15 @@ import static io.semla.reflect.Types.isAssignableToOneOf;
 
 public class MysqlDatasource<T> extends SqlDatasource<T> {
 
+    // what a server side prepared statement can bind at most
+    private static final int MAX_PLACEHOLDERS = 65535;
+    // room left in a packet for its header and the protocol overhead
+    private static final int PACKET_MARGIN = 1024;
+
+    private final Singleton<String> insertInto = Singleton.lazy(this::generateInsertInto);
+    private final Singleton<Long> maxAllowedPacket = Singleton.lazy(() ->
+        raw().withHandle(handle -> handle.createQuery("SELECT @@max_allowed_packet").mapTo(Long.class).one()));
+
     public MysqlDatasource(EntityModel<T> entityModel, Jdbi dbi, String tablename) {
         super(entityModel, dbi, tablename);
     }
@@ -43,6 +61,14 @@ public class MysqlDatasource<T> extends SqlDatasource<T> {
 
         ddl().withConstraint("PRIMARY KEY (" + ddl().escape(model().key().name()) + ")");
 
+        ddl().upsertWith(ddl -> {
+            String key = ddl.escape(model().key().name());
+            String updates = ddl.upsertableColumns().stream()
+                .map(column -> ddl.escape(column.name()) + " = VALUES(" + ddl.escape(column.name()) + ")")
+                .collect(Collectors.joining(", "));
+            return ddl.insert() + " ON DUPLICATE KEY UPDATE " + (updates.isEmpty() ? key + " = " + key : updates);
+        });
+
         withPredicateHandler(is, (s, c, p, o, v) -> {
             s.append(ddl().escape(c.name()));
             if (o == null) {
@@ -72,6 +98,124 @@ public class MysqlDatasource<T> extends SqlDatasource<T> {
         });
     }
 
+    @Override
+    protected boolean isDuplicateKey(SQLException e) {
+        // Mysql reports all the integrity violations as 23000, ER_DUP_ENTRY is the one we are after
+        return e.getErrorCode() == 1062;
+    }
+
+    @Override
+    protected StringBuilder appendSort(StringBuilder sql, Column<T> column, Pagination.Sort sort) {
+        // NULLS FIRST/LAST isn't supported, but Mysql already orders the nulls before any other value
+        sql.append(ddl().escape(column.name()));
+        if (sort != null) {
+            sql.append(" ").append(sort.name());
+        }
+        return sql;
+    }
+
+    @Override
+    protected int fetchSize() {
+        // the only fetch size Connector/J streams the rows with, unless useCursorFetch is set
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Inserts the entities with multi-row INSERT ... VALUES (...), (...) statements rather than one statement per row, each sized to
+     * fit in max_allowed_packet. The AUTO_INCREMENT values of a multi-row insert are consecutive, so the driver reports them in the
+     * order of the rows.
+     */
+    @Override
+    public void create(Collection<T> entities) {
+        List<Column<T>> columns = model().columns().stream().filter(Column::insertable).collect(Collectors.toList());
+        List<Row<T>> rows = entities.stream()
+            .map(entity -> new Row<>(entity, columns.stream().map(column -> valueToBind(column, entity)).toArray()))
+            .collect(Collectors.toList());
+        List<List<Row<T>>> statements = statementsOf(rows, Row::size,
+            maxRowsPerStatement(columns.size(), maxChunkSize()), insertInto.get().length(), maxAllowedPacket.get() - PACKET_MARGIN);
+        raw().useHandle(handle -> statements.forEach(statement -> insert(handle, columns, statement)));
+    }
+
+    /**
+     * @return how many rows a statement can insert without binding more than MAX_PLACEHOLDERS values.
+     */
+    static int maxRowsPerStatement(int columns, int maxChunkSize) {
+        return columns == 0 ? maxChunkSize : Math.max(1, Math.min(maxChunkSize, MAX_PLACEHOLDERS / columns));
+    }
+
+    /**
+     * splits the rows in statements of at most maxRows rows, each fitting in maxStatementSize. A row larger than that on its own
+     * still gets its own statement, for the server to reject it with a meaningful error.
+     */
+    static <R> List<List<R>> statementsOf(List<R> rows, ToLongFunction<R> sizeOf, int maxRows, long headerSize, long maxStatementSize) {
+        List<List<R>> statements = new ArrayList<>();
+        List<R> statement = new ArrayList<>();
+        long statementSize = headerSize;
+        for (R row : rows) {
+            long rowSize = sizeOf.applyAsLong(row);
+            if (!statement.isEmpty() && (statement.size() == maxRows || statementSize + rowSize > maxStatementSize)) {
+                statements.add(statement);
+                statement = new ArrayList<>();
+                statementSize = headerSize;
+            }
+            statement.add(row);
+            statementSize += rowSize;
+        }
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        return statements;
+    }
+
+    private void insert(Handle handle, List<Column<T>> columns, List<Row<T>> rows) {
+        String row = columns.stream().map(column -> "?")
+            .collect(Collectors.joining(", ", "(", model().version().map(version -> columns.isEmpty() ? "1)" : ", 1)").orElse(")")));
+        Update update = handle.createUpdate(insertInto.get() + String.join(", ", Collections.nCopies(rows.size(), row)));
+        int position = 0;
+        for (Row<T> rowValues : rows) {
+            for (int i = 0; i < rowValues.values().length; i++) {
+                Object value = rowValues.values()[i];
+                update.bindByType(position++, value, value != null ? value.getClass() : columns.get(i).member().getType());
+            }
+        }
+        if (hasGeneratedColumns()) {
+            List<Map<String, Object>> generatedKeys = update.executeAndReturnGeneratedKeys(generatedColumns()).mapToMap().list();
+            IntStream.range(0, rows.size()).forEach(i -> assignGeneratedValues(rows.get(i).entity(), Lists.from(generatedKeys.get(i).values())));
+        } else {
+            update.execute();
+        }
+    }
+
+    private record Row<T>(T entity, Object[] values, long size) {
+
+        private Row(T entity, Object[] values) {
+            this(entity, values, estimateSize(values));
+        }
+    }
+
+    private String generateInsertInto() {
+        String insert = ddl().insert();
+        return insert.substring(0, insert.indexOf(" VALUES (")) + " VALUES ";
+    }
+
+    static long estimateSize(Object[] row) {
+        // the driver inlines the values in the statement: quoted, escaped, and up to 4 bytes per character in utf8mb4
+        long size = 4;
+        for (Object value : row) {
+            if (value == null) {
+                size += 4;
+            } else if (value instanceof byte[] bytes) {
+                size += 2L * bytes.length + 3;
+            } else if (value instanceof Number || value instanceof Boolean) {
+                size += value.toString().length();
+            } else {
+                size += 4L * value.toString().length() + 2;
+            }
+            size += 2;
+        }
+        return size;
+    }
+
     @Override
     public long delete(Predicates<T> predicates, Pagination<T> pagination) {
         if (pagination.isSorted() || pagination.isPaginated()) {
@@ -0,0 +1,57 @@
+package io.semla.datasource;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MysqlDatasourceTest {
+
+    @Test
+    public void rowsAreSizedAsTheDriverInlinesThem() {
+        // 4 for the parentheses, then each value and its separator: null, a number, a quoted string, a hex blob
+        assertThat(MysqlDatasource.estimateSize(new Object[]{null, 12, "abc", new byte[]{1, 2}})).isEqualTo(4 + 6 + 4 + 16 + 9);
+        assertThat(MysqlDatasource.estimateSize(new Object[0])).isEqualTo(4);
+    }
+
+    @Test
+    public void statementsBindAtMost65535Values() {
+        assertThat(MysqlDatasource.maxRowsPerStatement(5, Integer.MAX_VALUE)).isEqualTo(13107);
+        assertThat(MysqlDatasource.maxRowsPerStatement(5, 1000)).isEqualTo(1000);
+        assertThat(MysqlDatasource.maxRowsPerStatement(70000, 1000)).isEqualTo(1);
+        assertThat(MysqlDatasource.maxRowsPerStatement(0, 1000)).isEqualTo(1000);
+
+        // 5 columns, 13107 rows is exactly 65535 placeholders, the next row goes in another statement
+        List<List<Integer>> statements = MysqlDatasource.statementsOf(
+            Collections.nCopies(13108, 1), row -> 10, MysqlDatasource.maxRowsPerStatement(5, Integer.MAX_VALUE), 20, Long.MAX_VALUE);
+        assertThat(statements).extracting(List::size).containsExactly(13107, 1);
+        assertThat(statements.get(0).size() * 5).isEqualTo(65535);
+    }
+
+    @Test
+    public void statementsFitInTheMaxAllowedPacket() {
+        // header 20, rows of 10: 8 rows fit in 100 bytes
+        List<List<Integer>> statements = MysqlDatasource.statementsOf(Collections.nCopies(20, 1), row -> 10, 1000, 20, 100);
+        assertThat(statements).extracting(List::size).containsExactly(8, 8, 4);
+        assertThat(MysqlDatasource.statementsOf(Collections.nCopies(8, 1), row -> 10, 1000, 20, 100)).hasSize(1);
+    }
+
+    @Test
+    public void aRowLargerThanThePacketIsInsertedOnItsOwn() {
+        List<List<Integer>> statements = MysqlDatasource.statementsOf(List.of(10, 500, 10, 10), row -> row, 1000, 20, 100);
+        assertThat(statements).containsExactly(List.of(10), List.of(500), List.of(10, 10));
+        assertThat(MysqlDatasource.statementsOf(List.of(500), row -> row, 1000, 20, 100)).containsExactly(List.of(500));
+        assertThat(MysqlDatasource.statementsOf(List.<Integer>of(), row -> row, 1000, 20, 100)).isEmpty();
+    }
+
+    @Test
+    public void statementsKeepTheOrderOfTheRows() {
+        List<Integer> rows = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        assertThat(MysqlDatasource.statementsOf(rows, row -> 10, 7, 0, Long.MAX_VALUE).stream().flatMap(List::stream))
+            .containsExactlyElementsOf(rows);
+    }
+}
@@ -1,26 +1,76 @@
 package io.semla.datasource;
 
+import io.semla.model.Column;
 import io.semla.model.EntityModel;
 import io.semla.query.Pagination;
 import io.semla.query.Predicates;
 import io.semla.query.Values;
+import io.semla.serialization.annotations.Serialize;
 import io.semla.serialization.annotations.TypeName;
+import io.semla.serialization.annotations.When;
+import io.semla.util.Singleton;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.argument.Argument;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
+import javax.persistence.Embedded;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
-import java.util.List;
+import javax.persistence.TemporalType;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import static io.semla.model.EntityModel.isEntity;
 import static io.semla.reflect.Types.isAssignableTo;
 import static io.semla.reflect.Types.isAssignableToOneOf;
+import static io.semla.reflect.Types.wrap;
+import static io.semla.util.Unchecked.unchecked;
 
 
 public class PostgresqlDatasource<T> extends SqlDatasource<T> {
 
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final Map<Class<?>, String> ARRAY_TYPES = Map.of(
+        Short.class, "int2",
+        Integer.class, "int4",
+        Long.class, "int8",
+        Float.class, "float4",
+        Double.class, "float8",
+        Boolean.class, "bool",
+        String.class, "text"
+    );
+
+    private final Singleton<Boolean> isCopyable = Singleton.lazy(this::isCopyable);
+    private final Singleton<String> copy = Singleton.lazy(this::generateCopyQuery);
+    private final Map<Column<T>, Optional<String>> arrayTypes = new ConcurrentHashMap<>();
+    private boolean bulkCopy;
+
     public PostgresqlDatasource(EntityModel<T> entityModel, Jdbi dbi, String tablename) {
         super(entityModel, dbi, tablename);
     }
 
+    /**
+     * streams {@link #create(Collection)} through COPY FROM STDIN rather than batched inserts, as long as no generated value needs
+     * to be returned and all the columns can be written as text.
+     */
+    public PostgresqlDatasource<T> withBulkCopy(boolean bulkCopy) {
+        this.bulkCopy = bulkCopy;
+        return this;
+    }
+
     @Override
     protected void extend() {
         if (model().key().member().annotation(GeneratedValue.class).isPresent()) {
@@ -34,6 +84,14 @@ public class PostgresqlDatasource<T> extends SqlDatasource<T> {
             .withColumnDefinition(column -> isAssignableTo(column.member().getType(), Double.class), "DOUBLE PRECISION")
             .withColumnDefinition(column -> isAssignableTo(column.member().getType(), Boolean.class), "BOOLEAN");
 
+        ddl().upsertWith(ddl -> {
+            String updates = ddl.upsertableColumns().stream()
+                .map(column -> ddl.escape(column.name()) + " = EXCLUDED." + ddl.escape(column.name()))
+                .collect(Collectors.joining(", "));
+            return ddl.insert() + " ON CONFLICT (" + ddl.escape(model().key().name()) + ") DO "
+                + (updates.isEmpty() ? "NOTHING" : "UPDATE SET " + updates);
+        });
+
         model().indices().forEach(index -> {
                 if (!index.isPrimary()) {
                     ddl().addCommand("CREATE " + (index.isUnique() ? "UNIQUE " : "")
@@ -44,25 +102,197 @@ public class PostgresqlDatasource<T> extends SqlDatasource<T> {
         );
     }
 
+    @Override
+    public void create(Collection<T> entities) {
+        if (!bulkCopy || entities.isEmpty() || !isCopyable.get()) {
+            super.create(entities);
+            return;
+        }
+        raw().useHandle(handle -> unchecked(() ->
+            copy(handle.getConnection().unwrap(PGConnection.class).getCopyAPI().copyIn(copy.get()), entities)));
+    }
+
+    void copy(CopyIn copyIn, Collection<T> entities) throws SQLException {
+        List<Column<T>> columns = model().columns().stream().filter(Column::insertable).collect(Collectors.toList());
+        try {
+            StringBuilder rows = new StringBuilder();
+            for (T entity : entities) {
+                columns.forEach(column -> appendCsv(rows, column, valueToBind(column, entity)).append(','));
+                if (model().version().isPresent()) {
+                    rows.append("1,");
+                }
+                rows.setCharAt(rows.length() - 1, '\n');
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, rows);
+                }
+            }
+            writeToCopy(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    boolean isCopyable() {
+        return !hasGeneratedColumns() && model().columns().stream().filter(Column::insertable).allMatch(this::isCopyable);
+    }
+
+    private boolean isCopyable(Column<?> column) {
+        Class<?> type = column.member().getType();
+        if (isEntity(type)) {
+            return isCopyable(EntityModel.of(type).key());
+        }
+        // the types we know the text representation of, once bound
+        return type.isPrimitive()
+            || type.isEnum()
+            || type.equals(UUID.class)
+            || column.member().annotation(Embedded.class).isPresent()
+            || type.isArray() && !isAssignableTo(type.getComponentType(), Byte.class)
+            || isAssignableToOneOf(type, Number.class, String.class, Boolean.class, Character.class,
+            Date.class, Calendar.class, Instant.class, LocalDate.class, LocalDateTime.class, LocalTime.class);
+    }
+
+    String generateCopyQuery() {
+        StringBuilder copy = new StringBuilder("COPY " + ddl().escape(ddl().tablename()) + " (");
+        model().columns().stream().filter(Column::insertable).forEach(column -> copy.append(ddl().escape(column.name())).append(", "));
+        model().version().ifPresent(version -> copy.append(ddl().escape(version.name())).append(", "));
+        copy.delete(copy.length() - 2, copy.length());
+        return copy.append(") FROM STDIN WITH (FORMAT csv)").toString();
+    }
+
+    private static StringBuilder appendCsv(StringBuilder rows, Column<?> column, Object value) {
+        if (value == null) {
+            // an unquoted empty value is a null in csv, an empty string is quoted
+            return rows;
+        }
+        String text;
+        if (value instanceof java.sql.Date || value instanceof Time || value instanceof Timestamp) {
+            text = value.toString();
+        } else if (value instanceof Date date) {
+            // same conversions as the jdbc driver, in the default time zone
+            TemporalType temporalType = column.member().annotation(javax.persistence.Temporal.class)
+                .map(javax.persistence.Temporal::value).orElse(TemporalType.TIMESTAMP);
+            text = switch (temporalType) {
+                case DATE -> new java.sql.Date(date.getTime()).toString();
+                case TIME -> new Time(date.getTime()).toString();
+                case TIMESTAMP -> new Timestamp(date.getTime()).toString();
+            };
+        } else if (value instanceof Instant instant) {
+            text = Timestamp.from(instant).toString();
+        } else {
+            text = value.toString();
+        }
+        rows.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        return rows.append('"');
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    @Override
+    protected boolean abortsTransactionOnError() {
+        // the transaction refuses any further statement until rolled back
+        return true;
+    }
+
+    @Override
+    protected boolean returnsUpdatedRows() {
+        // the driver appends a RETURNING clause to each statement of the batch
+        return true;
+    }
+
+    @Override
+    protected void appendIn(StringBuilder sql, Column<T> column, boolean negated, Collection<?> collection, Map<String, Object> values) {
+        Optional<String> arrayType = arrayTypeOf(column);
+        if (arrayType.isEmpty()) {
+            super.appendIn(sql, column, negated, collection, values);
+            return;
+        }
+        // a single array parameter, whatever the number of values
+        String placeholder = column.name() + values.size();
+        values.put(placeholder, inValuesOf(column, collection).get(0));
+        sql.append(ddl().escape(column.name())).append(negated ? " <> ALL(:" : " = ANY(:")
+            .append(placeholder).append("::").append(arrayType.get()).append("[])");
+    }
+
+    @Override
+    protected List<Object> inValuesOf(Column<T> column, Collection<?> collection) {
+        List<Object> values = super.inValuesOf(column, collection);
+        return arrayTypeOf(column).<List<Object>>map(arrayType -> List.of(new SqlArray(arrayType, values))).orElse(values);
+    }
+
+    private Optional<String> arrayTypeOf(Column<T> column) {
+        return arrayTypes.computeIfAbsent(column, c -> {
+            Column<?> valueColumn = isEntity(c.member().getType()) ? EntityModel.of(c.member().getType()).key() : c;
+            if (valueColumn.columnDefinition().isPresent()) {
+                // we can't tell the sql type of a custom definition
+                return Optional.empty();
+            }
+            Class<?> type = valueColumn.member().getType();
+            if (type.isEnum()) {
+                return Optional.of(valueColumn.member().annotation(Enumerated.class)
+                    .filter(enumerated -> enumerated.value() == EnumType.ORDINAL).isPresent() ? "int4" : "text");
+            }
+            return Optional.ofNullable(type.equals(UUID.class) ? "text" : ARRAY_TYPES.get(wrap(type)));
+        });
+    }
+
     @Override
     public long patch(Values<T> values, Predicates<T> predicates, Pagination<T> pagination) {
-        if (pagination.isPaginated()) {
-            // LIMIT is not supported on updates, so we have to first query and then patch
-            List<Object> keys = list(predicates, pagination).stream().map(model().key().member()::getOn).collect(Collectors.toList());
-            return super.patch(values, Predicates.of(model()).where(model().key().member().getName()).in(keys)); // no pagination
+        if (pagination.isSorted() || pagination.isPaginated()) {
+            // ORDER BY and LIMIT are not supported on updates, so the rows are picked by a subquery in the same statement
+            return (long) raw().withHandle(handle -> {
+                StringBuilder sql = patchStatement(values);
+                return bind(query(handle::createUpdate, sql, addRowsOf(sql, predicates, pagination)), values).execute();
+            });
         }
         return super.patch(values, predicates, pagination);
     }
 
     @Override
     public long delete(Predicates<T> predicates, Pagination<T> pagination) {
-        if (pagination.isPaginated()) {
-            // LIMIT is not supported on deletes, so we have to first query and then delete the keys
-            return delete(list(predicates, pagination).stream().map(model().key().member()::getOn).collect(Collectors.toList()));
+        if (pagination.isSorted() || pagination.isPaginated()) {
+            // same as for the updates
+            return (long) raw().withHandle(handle -> {
+                StringBuilder sql = new StringBuilder("DELETE FROM " + ddl().escape(ddl().tablename()));
+                return query(handle::createUpdate, sql, addRowsOf(sql, predicates, pagination)).execute();
+            });
         }
         return super.delete(predicates, pagination);
     }
 
+    /**
+     * appends WHERE ctid = ANY(ARRAY(SELECT ctid FROM table &lt;predicates&gt; &lt;pagination&gt;)). The physical row ids let
+     * postgres fetch the selected rows directly with a tid scan, without going back through the key index. A row concurrently
+     * updated between the subquery and the update gets a new ctid and is skipped, as it would be by any other page boundary.
+     */
+    private Map<String, Object> addRowsOf(StringBuilder sql, Predicates<T> predicates, Pagination<T> pagination) {
+        sql.append(" WHERE ctid = ANY(ARRAY(SELECT ctid FROM ").append(ddl().escape(ddl().tablename()));
+        Map<String, Object> values = addPredicates(sql, predicates, pagination);
+        sql.append("))");
+        return values;
+    }
+
+    private record SqlArray(String type, List<Object> elements) implements Argument {
+
+        @Override
+        public void apply(int position, PreparedStatement statement, StatementContext ctx) throws SQLException {
+            statement.setArray(position, statement.getConnection().createArrayOf(type, elements.toArray()));
+        }
+    }
+
     public static PostgresqlDatasource.Configuration configure() {
         return new PostgresqlDatasource.Configuration();
     }
@@ -70,11 +300,23 @@ public class PostgresqlDatasource<T> extends SqlDatasource<T> {
     @TypeName("postgresql")
     public static class Configuration extends SqlDatasource.Configuration<PostgresqlDatasource.Configuration> {
 
+        private boolean bulkCopy;
+
         public Configuration() {
             withDriverClassName("org.postgresql.Driver");
             withConnectionTestQuery("SELECT 1");
         }
 
+        @Serialize(When.NOT_DEFAULT)
+        public boolean bulkCopy() {
+            return bulkCopy;
+        }
+
+        public Configuration withBulkCopy(boolean bulkCopy) {
+            this.bulkCopy = bulkCopy;
+            return this;
+        }
+
         @Override
         public <T> PostgresqlDatasource<T> create(EntityModel<T> model) {
             return (PostgresqlDatasource<T>) super.create(model);
@@ -82,7 +324,7 @@ public class PostgresqlDatasource<T> extends SqlDatasource<T> {
 
         @Override
         public <T> PostgresqlDatasource<T> create(EntityModel<T> model, String tablename) {
-            return new PostgresqlDatasource<>(model, jdbi(), tablename);
+            return new PostgresqlDatasource<>(model, jdbi(), tablename).withBulkCopy(bulkCopy);
         }
     }
 
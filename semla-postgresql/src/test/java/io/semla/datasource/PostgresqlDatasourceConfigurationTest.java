@@ -27,5 +27,17 @@ public class PostgresqlDatasourceConfigurationTest {
                 """
             , Datasource.Configuration.class);
         assertThat(configuration).isInstanceOf(PostgresqlDatasource.Configuration.class);
+        assertThat(((PostgresqlDatasource.Configuration) configuration).bulkCopy()).isFalse();
+    }
+
+    @Test
+    public void parseBulkCopy() {
+        PostgresqlDatasource.Configuration configuration = (PostgresqlDatasource.Configuration) Yaml.read("""
+                type: postgresql
+                jdbcUrl: "jdbc:postgresql://[::1]:5740/accounting"
+                bulkCopy: true
+                """
+            , Datasource.Configuration.class);
+        assertThat(configuration.bulkCopy()).isTrue();
     }
 }
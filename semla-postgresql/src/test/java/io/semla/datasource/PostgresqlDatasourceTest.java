@@ -0,0 +1,189 @@
+package io.semla.datasource;
+
+import io.semla.model.EntityModel;
+import org.junit.Test;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.util.ByteStreamWriter;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Version;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PostgresqlDatasourceTest {
+
+    private final PostgresqlDatasource<Line> lines = new PostgresqlDatasource<>(EntityModel.of(Line.class), null, "lines");
+
+    @Test
+    public void theVersionIsCopiedAfterTheInsertableColumns() {
+        assertThat(lines.generateCopyQuery())
+            .isEqualTo("COPY \"lines\" (\"id\", \"name\", \"value\", \"day\", \"kind\", \"values\", \"version\") FROM STDIN WITH (FORMAT csv)");
+    }
+
+    @Test
+    public void onlyEntitiesWithoutGeneratedValuesOrBinaryColumnsAreCopied() {
+        assertThat(lines.isCopyable()).isTrue();
+        assertThat(new PostgresqlDatasource<>(EntityModel.of(Generated.class), null, "generated").isCopyable()).isFalse();
+        assertThat(new PostgresqlDatasource<>(EntityModel.of(Binary.class), null, "binary").isCopyable()).isFalse();
+    }
+
+    @Test
+    public void valuesAreQuotedAndNullsAreLeftEmpty() throws SQLException {
+        RecordingCopyIn copyIn = new RecordingCopyIn();
+        lines.copy(copyIn, List.of(
+            Line.with(1, "say \"hi\", then\nleave", 12, LocalDate.of(2026, 10, 17), Kind.SHORT, new int[]{1, 2}),
+            Line.with(2, "", null, null, null, null)
+        ));
+        assertThat(copyIn.ended).isTrue();
+        assertThat(copyIn.text()).isEqualTo("""
+            "1","say ""hi"", then
+            leave","12","2026-10-17","SHORT","[1,2]",1
+            "2","",,,,,1
+            """);
+    }
+
+    @Test
+    public void largeCopiesAreWrittenInWholeRows() throws SQLException {
+        RecordingCopyIn copyIn = new RecordingCopyIn();
+        List<Line> entities = IntStream.range(0, 5000).mapToObj(i -> Line.with(i, "name" + i, i, null, Kind.LONG, null)).collect(Collectors.toList());
+        lines.copy(copyIn, entities);
+        assertThat(copyIn.writes).hasSizeGreaterThan(1).allMatch(write -> write.endsWith("\n"));
+        assertThat(copyIn.text().split("\n")).hasSize(5000).startsWith("\"0\",\"name0\",\"0\",,\"LONG\",,1");
+    }
+
+    @Test
+    public void aFailedCopyIsCancelled() {
+        RecordingCopyIn copyIn = new RecordingCopyIn() {
+            @Override
+            public void writeToCopy(byte[] buf, int off, int siz) throws SQLException {
+                throw new SQLException("broken pipe");
+            }
+        };
+        assertThatThrownBy(() -> lines.copy(copyIn, List.of(Line.with(1, "name", 1, null, null, null))))
+            .isInstanceOf(SQLException.class);
+        assertThat(copyIn.cancelled).isTrue();
+        assertThat(copyIn.ended).isFalse();
+    }
+
+    private static class RecordingCopyIn implements CopyIn {
+
+        private final List<String> writes = new ArrayList<>();
+        private boolean ended;
+        private boolean cancelled;
+
+        private String text() {
+            return String.join("", writes);
+        }
+
+        @Override
+        public void writeToCopy(byte[] buf, int off, int siz) throws SQLException {
+            writes.add(new String(buf, off, siz, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeToCopy(ByteStreamWriter from) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flushCopy() {}
+
+        @Override
+        public long endCopy() {
+            ended = true;
+            return writes.size();
+        }
+
+        @Override
+        public int getFieldCount() {
+            return 0;
+        }
+
+        @Override
+        public int getFormat() {
+            return 0;
+        }
+
+        @Override
+        public int getFieldFormat(int field) {
+            return 0;
+        }
+
+        @Override
+        public boolean isActive() {
+            return !ended && !cancelled;
+        }
+
+        @Override
+        public void cancelCopy() {
+            cancelled = true;
+        }
+
+        @Override
+        public long getHandledRowCount() {
+            return 0;
+        }
+    }
+
+    public enum Kind {
+        SHORT, LONG
+    }
+
+    @Entity
+    public static class Line {
+
+        @Id
+        public int id;
+
+        public String name;
+
+        public Integer value;
+
+        public LocalDate day;
+
+        public Kind kind;
+
+        public int[] values;
+
+        @Version
+        public int version;
+
+        public static Line with(int id, String name, Integer value, LocalDate day, Kind kind, int[] values) {
+            Line line = new Line();
+            line.id = id;
+            line.name = name;
+            line.value = value;
+            line.day = day;
+            line.kind = kind;
+            line.values = values;
+            return line;
+        }
+    }
+
+    @Entity
+    public static class Generated {
+
+        @Id
+        @GeneratedValue
+        public int id;
+    }
+
+    @Entity
+    public static class Binary {
+
+        @Id
+        public int id;
+
+        public byte[] content;
+    }
+}